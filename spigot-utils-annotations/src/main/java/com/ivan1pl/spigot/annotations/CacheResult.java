@@ -0,0 +1,41 @@
+package com.ivan1pl.spigot.annotations;
+
+import java.lang.annotation.*;
+
+/**
+ * <p>Annotation used to mark command methods whose output can be cached. Applies to every {@link Command} declared on
+ * the annotated method.</p>
+ *
+ * <p>The annotated method must return {@code String} or {@code String[]}. The returned messages are sent to the
+ * command sender and, as long as the cached entry is valid, repeated invocations with the same arguments are answered
+ * by re-sending them without invoking the method. Cached results can be invalidated using
+ * {@code CommandResultCache}.</p>
+ *
+ * <p>Only the returned messages are cached. Messages sent directly to the sender by the method (including components,
+ * titles and action bars) and any other side effects happen only when the method is actually invoked. Results are
+ * kept separately for each sender unless {@link #perSender()} is {@code false}; a cached result is not re-evaluated
+ * when the state it depends on (e.g. permissions of the sender) changes, until it expires or is invalidated.</p>
+ *
+ * @see Command
+ */
+@Target({ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CacheResult {
+    /**
+     * Time (in seconds) after which a cached result expires. Non-positive value means cached results never expire.
+     */
+    long ttl() default 60;
+
+    /**
+     * Maximum number of cached results (distinct argument tuples) for the annotated method. When this size is
+     * exceeded, the least recently used result is evicted.
+     */
+    int maxSize() default 100;
+
+    /**
+     * Whether results are cached separately for each sender (identified by UUID for players and other entities, by
+     * name otherwise). Set to {@code false} only if the output does not depend on the sender.
+     */
+    boolean perSender() default true;
+}
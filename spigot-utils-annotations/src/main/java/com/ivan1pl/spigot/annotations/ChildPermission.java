@@ -8,7 +8,7 @@ import java.lang.annotation.Target;
  * Annotation used for generating child permissions section in {@code plugin.yml} file.
  */
 @Target({})
-@Retention(RetentionPolicy.SOURCE)
+@Retention(RetentionPolicy.CLASS)
 public @interface ChildPermission {
     /**
      * Permission node name.
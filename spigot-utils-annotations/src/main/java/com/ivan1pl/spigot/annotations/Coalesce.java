@@ -0,0 +1,26 @@
+package com.ivan1pl.spigot.annotations;
+
+import java.lang.annotation.*;
+
+/**
+ * <p>Annotation used to mark command methods whose duplicate invocations should be coalesced. Applies to every
+ * {@link Command} declared on the annotated method.</p>
+ *
+ * <p>An invocation is a duplicate if the same sender sends the same command with the same arguments while the
+ * previous invocation is still executing (it is then coalesced into the running invocation), or within the configured
+ * window after it finished (it is then dropped). The sender of a duplicate invocation is told that the command was
+ * ignored. Use this annotation on expensive commands which are often sent several times because of lag or client
+ * macros.</p>
+ *
+ * @see Command
+ */
+@Target({ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Coalesce {
+    /**
+     * Time (in milliseconds) after an invocation finished during which identical invocations are dropped. Zero (the
+     * default) means that only invocations arriving while the previous one is still executing are coalesced.
+     */
+    long window() default 0;
+}
@@ -32,13 +32,16 @@ public @interface Command {
     String description() default "";
 
     /**
-     * The most basic permission node required to use the command.
+     * The most basic permission node required to use the command. If {@link Command} annotations declared with the
+     * same command name require different permissions, each of them is checked separately when the command is
+     * executed; otherwise the permission is checked by the server.
      */
     String permission() default "";
 
     /**
      * A no-permission message which is displayed to a user if they do not have the required permission to use this
-     * command.
+     * command. When the permission is checked by the command executor (see {@link #permission()}) and the plugin
+     * message catalog contains a message with this key, the localized message is displayed instead.
      */
     String permissionMessage() default "";
 
@@ -3,18 +3,19 @@ package com.ivan1pl.spigot.annotations;
 import java.lang.annotation.*;
 
 /**
- * Annotation used to mark the plugin main class with packages to scan for commands.
+ * Annotation used to mark the plugin main class with packages to scan for commands and scheduled tasks.
  *
  * This annotation can be repeated.
  *
  * @see Command
+ * @see Scheduled
  */
 @Target({ElementType.TYPE})
 @Retention(RetentionPolicy.RUNTIME)
 @Repeatable(CommandPackage.List.class)
 public @interface CommandPackage {
     /**
-     * Path of the package containing command definitions.
+     * Path of the package containing command (and scheduled task) definitions.
      */
     String value();
 
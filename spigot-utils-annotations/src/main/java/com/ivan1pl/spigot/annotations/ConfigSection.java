@@ -0,0 +1,24 @@
+package com.ivan1pl.spigot.annotations;
+
+import java.lang.annotation.*;
+
+/**
+ * <p>Annotation used to mark interfaces describing plugin configuration. Each method of the interface must take no
+ * parameters, return one of the supported types and be annotated with {@link ConfigValue}.</p>
+ *
+ * <p>Supported return types are: {@code boolean}, {@code int}, {@code long}, {@code double}, {@code String}.</p>
+ *
+ * <p>An immutable implementation of the interface and a loader filling it from configuration are generated at compile
+ * time. Use {@code ConfigUtils.bind} to obtain the current configuration snapshot.</p>
+ *
+ * @see ConfigValue
+ */
+@Target({ElementType.TYPE})
+@Retention(RetentionPolicy.CLASS)
+@Documented
+public @interface ConfigSection {
+    /**
+     * Path of the configuration section, prepended to paths of all values. Empty means the root section.
+     */
+    String value() default "";
+}
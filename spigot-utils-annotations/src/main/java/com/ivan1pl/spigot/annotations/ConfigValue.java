@@ -0,0 +1,24 @@
+package com.ivan1pl.spigot.annotations;
+
+import java.lang.annotation.*;
+
+/**
+ * Annotation used to bind methods of {@link ConfigSection} interfaces to configuration values.
+ *
+ * @see ConfigSection
+ */
+@Target({ElementType.METHOD})
+@Retention(RetentionPolicy.CLASS)
+@Documented
+public @interface ConfigValue {
+    /**
+     * Path of the value, relative to the section path. Empty means the method name.
+     */
+    String path() default "";
+
+    /**
+     * Value used when the configuration does not contain the path. Empty means the default value of the return type
+     * ({@code false}, zero or {@code null}).
+     */
+    String defaultValue() default "";
+}
@@ -0,0 +1,31 @@
+package com.ivan1pl.spigot.annotations;
+
+import java.lang.annotation.*;
+
+/**
+ * <p>Annotation used to mark methods as event handlers. The annotated method must take exactly one parameter, the
+ * handled event, and must not be private or static. The declaring class must be public, implement Bukkit
+ * {@code Listener} and have a public no-argument constructor (it is instantiated once when the plugin is enabled).</p>
+ *
+ * <p>For each annotated method an event executor calling the method directly (without reflection) is generated at
+ * compile time.</p>
+ */
+@Target({ElementType.METHOD})
+@Retention(RetentionPolicy.CLASS)
+@Documented
+public @interface EventListener {
+    /**
+     * Listener priority.
+     */
+    ListenerPriority priority() default ListenerPriority.NORMAL;
+
+    /**
+     * Indicates whether the handler should not be called for events which were already cancelled.
+     */
+    boolean ignoreCancelled() default false;
+
+    /**
+     * Indicates whether execution time of the handler should be measured.
+     */
+    boolean timed() default false;
+}
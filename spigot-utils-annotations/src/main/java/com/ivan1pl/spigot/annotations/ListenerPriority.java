@@ -0,0 +1,37 @@
+package com.ivan1pl.spigot.annotations;
+
+/**
+ * Event listener priority, mirrors Bukkit {@code EventPriority}. Listeners with lower priority are called first.
+ */
+public enum ListenerPriority {
+    /**
+     * Called first, use when the listener's decision is of very low importance.
+     */
+    LOWEST,
+
+    /**
+     * Low importance.
+     */
+    LOW,
+
+    /**
+     * Neither important nor unimportant.
+     */
+    NORMAL,
+
+    /**
+     * High importance.
+     */
+    HIGH,
+
+    /**
+     * Critical importance, the listener has the final say in what happens to the event.
+     */
+    HIGHEST,
+
+    /**
+     * Called last, only for monitoring the outcome of an event (no modifications should be made).
+     */
+    MONITOR,
+    ;
+}
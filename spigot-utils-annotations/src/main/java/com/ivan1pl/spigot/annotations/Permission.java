@@ -8,7 +8,7 @@ import java.lang.annotation.Target;
  * Annotation used for generating permissions section in {@code plugin.yml} file.
  */
 @Target({})
-@Retention(RetentionPolicy.SOURCE)
+@Retention(RetentionPolicy.CLASS)
 public @interface Permission {
     /**
      * Permission node name.
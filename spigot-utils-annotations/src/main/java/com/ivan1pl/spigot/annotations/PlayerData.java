@@ -0,0 +1,23 @@
+package com.ivan1pl.spigot.annotations;
+
+import java.lang.annotation.*;
+
+/**
+ * <p>Annotation used to mark classes holding persistent per-player data. The class must be public and have a public
+ * no-argument constructor. All its non-static, non-transient fields, including fields inherited from superclasses, are
+ * stored; they must not be private or final (inherited fields declared in other packages must be public).</p>
+ *
+ * <p>Supported field types are: {@code boolean}, {@code int}, {@code long}, {@code double}, {@code String}.</p>
+ *
+ * <p>Fields are serialized in declaration order, fields of superclasses first. New fields can be added at the end of
+ * the annotated class (they keep their initial values when older data is read), but existing fields must not be
+ * removed, reordered or change type, and no fields can be added to superclasses.</p>
+ *
+ * <p>A binary codec for the class is generated at compile time. Use {@code PlayerDataStore.open} to access the
+ * data.</p>
+ */
+@Target({ElementType.TYPE})
+@Retention(RetentionPolicy.CLASS)
+@Documented
+public @interface PlayerData {
+}
@@ -9,7 +9,7 @@ import java.lang.annotation.Target;
  * Annotation used for {@code plugin.yml} file generation.
  */
 @Target({ElementType.TYPE})
-@Retention(RetentionPolicy.SOURCE)
+@Retention(RetentionPolicy.CLASS)
 public @interface Plugin {
     /**
      * Plugin name.
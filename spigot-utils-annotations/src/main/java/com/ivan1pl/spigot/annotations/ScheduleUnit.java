@@ -0,0 +1,41 @@
+package com.ivan1pl.spigot.annotations;
+
+/**
+ * Time unit of {@link Scheduled} tasks.
+ */
+public enum ScheduleUnit {
+    /**
+     * Server ticks. Tasks follow the server tick rate (they run less often when the server is lagging).
+     */
+    TICKS(0),
+
+    /**
+     * Milliseconds (wall-clock time, rounded up to whole ticks).
+     */
+    MILLISECONDS(1),
+
+    /**
+     * Seconds (wall-clock time).
+     */
+    SECONDS(1000),
+
+    /**
+     * Minutes (wall-clock time).
+     */
+    MINUTES(60 * 1000),
+    ;
+
+    private long millis;
+
+    ScheduleUnit(long millis) {
+        this.millis = millis;
+    }
+
+    /**
+     * Get the length of the unit in milliseconds.
+     * @return unit length, 0 for {@link #TICKS}
+     */
+    public long getMillis() {
+        return millis;
+    }
+}
@@ -0,0 +1,37 @@
+package com.ivan1pl.spigot.annotations;
+
+import java.lang.annotation.*;
+
+/**
+ * <p>Annotation used to mark methods as scheduled tasks. The annotated method must not take any parameters. If it is
+ * not static, the declaring class must have a public no-argument constructor (it is instantiated once when the plugin
+ * is enabled).</p>
+ *
+ * <p>Scheduled methods are discovered in packages declared with {@link CommandPackage}.</p>
+ *
+ * @see CommandPackage
+ */
+@Target({ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Scheduled {
+    /**
+     * Delay before the first execution.
+     */
+    long delay() default 0;
+
+    /**
+     * Period between executions. Non-positive value means the task is executed only once.
+     */
+    long period() default 0;
+
+    /**
+     * Unit of delay and period.
+     */
+    ScheduleUnit unit() default ScheduleUnit.TICKS;
+
+    /**
+     * Indicates whether the task should be executed asynchronously (outside the server thread).
+     */
+    boolean async() default false;
+}
@@ -0,0 +1,226 @@
+package com.ivan1pl.spigot.utils;
+
+import com.google.auto.service.AutoService;
+import com.ivan1pl.spigot.annotations.ConfigSection;
+import com.ivan1pl.spigot.annotations.ConfigValue;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Processor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * Compile-time annotation processor generating configuration loaders for interfaces annotated with
+ * {@link ConfigSection}. Each loader creates instances of a generated immutable class implementing the interface, with
+ * one final field per configuration value.
+ */
+@AutoService(Processor.class)
+public class ConfigGenerator extends AbstractProcessor {
+    @Override
+    public boolean process(Set<? extends TypeElement> set, RoundEnvironment roundEnvironment) {
+        for (TypeElement element : ElementFilter.typesIn(
+                roundEnvironment.getElementsAnnotatedWith(ConfigSection.class))) {
+            List<ValueData> values = getValues(element);
+            if (values != null) {
+                generateLoader(element, values);
+            }
+        }
+        return false;
+    }
+
+    private List<ValueData> getValues(TypeElement element) {
+        if (element.getKind() != ElementKind.INTERFACE) {
+            error(element, "@ConfigSection can only be used on interfaces.");
+            return null;
+        }
+        if (!element.getModifiers().contains(Modifier.PUBLIC)) {
+            error(element, "Configuration interface must be public.");
+            return null;
+        }
+        String prefix = element.getAnnotation(ConfigSection.class).value();
+        List<ValueData> values = new ArrayList<>();
+        boolean valid = true;
+        for (ExecutableElement method : ElementFilter.methodsIn(
+                processingEnv.getElementUtils().getAllMembers(element))) {
+            if (!method.getModifiers().contains(Modifier.ABSTRACT)) {
+                continue;
+            }
+            ConfigValue configValue = method.getAnnotation(ConfigValue.class);
+            if (configValue == null) {
+                error(method, "Configuration method must be annotated with @ConfigValue.");
+                valid = false;
+                continue;
+            }
+            if (!method.getParameters().isEmpty()) {
+                error(method, "Configuration method must not take any parameters.");
+                valid = false;
+                continue;
+            }
+            TypeMirror type = method.getReturnType();
+            String getter = getGetter(type);
+            if (getter == null) {
+                error(method, String.format("The type %s is not supported.", type));
+                valid = false;
+                continue;
+            }
+            String defaultValue = getDefaultValue(type, configValue.defaultValue());
+            if (defaultValue == null) {
+                error(method, "Invalid default value for type " + type + ": " + configValue.defaultValue());
+                valid = false;
+                continue;
+            }
+            String path = configValue.path().isEmpty() ? method.getSimpleName().toString() : configValue.path();
+            values.add(new ValueData(method.getSimpleName().toString(), type.toString(), getter,
+                    prefix.isEmpty() ? path : prefix + "." + path, defaultValue));
+        }
+        return valid ? values : null;
+    }
+
+    private String getGetter(TypeMirror type) {
+        switch (type.getKind()) {
+            case BOOLEAN:
+                return "getBoolean";
+            case INT:
+                return "getInt";
+            case LONG:
+                return "getLong";
+            case DOUBLE:
+                return "getDouble";
+            case DECLARED:
+                return processingEnv.getTypeUtils().isSameType(type, processingEnv.getElementUtils()
+                        .getTypeElement(String.class.getCanonicalName()).asType()) ? "getString" : null;
+            default:
+                return null;
+        }
+    }
+
+    private String getDefaultValue(TypeMirror type, String value) {
+        try {
+            switch (type.getKind()) {
+                case BOOLEAN:
+                    return value.isEmpty() ? "false" :
+                            processingEnv.getElementUtils().getConstantExpression(
+                                    ArgumentUtils.convertDefaultValue(Boolean.class, value));
+                case INT:
+                    return value.isEmpty() ? "0" : processingEnv.getElementUtils().getConstantExpression(
+                            Integer.valueOf(value));
+                case LONG:
+                    return value.isEmpty() ? "0L" : processingEnv.getElementUtils().getConstantExpression(
+                            Long.valueOf(value));
+                case DOUBLE:
+                    return value.isEmpty() ? "0.0" : processingEnv.getElementUtils().getConstantExpression(
+                            Double.valueOf(value));
+                default:
+                    return value.isEmpty() ? "null" : processingEnv.getElementUtils().getConstantExpression(value);
+            }
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private void generateLoader(TypeElement element, List<ValueData> values) {
+        String packageName = processingEnv.getElementUtils().getPackageOf(element).getQualifiedName().toString();
+        String binaryName = processingEnv.getElementUtils().getBinaryName(element).toString();
+        String simpleName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1)) +
+                ConfigLoader.SUFFIX;
+        String interfaceName = element.getQualifiedName().toString();
+
+        try {
+            JavaFileObject source = processingEnv.getFiler().createSourceFile(
+                    packageName.isEmpty() ? simpleName : packageName + "." + simpleName, element);
+            try (Writer writer = source.openWriter()) {
+                if (!packageName.isEmpty()) {
+                    writer.write("package " + packageName + ";\n\n");
+                }
+                writer.write("/**\n * Configuration loader for {@code " + interfaceName +
+                        "}, generated by spigot-utils.\n */\n");
+                writer.write("public final class " + simpleName + " implements " +
+                        ConfigLoader.class.getCanonicalName() + "<" + interfaceName + "> {\n");
+                writer.write("    @Override\n");
+                writer.write("    public " + interfaceName + " load(org.bukkit.configuration.ConfigurationSection " +
+                        "config) {\n");
+                writer.write("        return new Snapshot(");
+                for (int i = 0; i < values.size(); ++i) {
+                    ValueData value = values.get(i);
+                    writer.write(i == 0 ? "\n" : ",\n");
+                    // getX(path, def) returns def without consulting the defaults of the configuration (the
+                    // config.yml bundled in the plugin jar), contains(path) and getX(path) do consult them
+                    String path = processingEnv.getElementUtils().getConstantExpression(value.path);
+                    writer.write("                config.contains(" + path + ") ? config." + value.getter + "(" +
+                            path + ") : " + value.defaultValue);
+                }
+                writer.write(");\n");
+                writer.write("    }\n\n");
+                writer.write("    private static final class Snapshot implements " + interfaceName + " {\n");
+                for (ValueData value : values) {
+                    writer.write("        private final " + value.type + " " + value.name + ";\n");
+                }
+                writer.write("\n        Snapshot(");
+                for (int i = 0; i < values.size(); ++i) {
+                    writer.write((i == 0 ? "" : ", ") + values.get(i).type + " " + values.get(i).name);
+                }
+                writer.write(") {\n");
+                for (ValueData value : values) {
+                    writer.write("            this." + value.name + " = " + value.name + ";\n");
+                }
+                writer.write("        }\n");
+                for (ValueData value : values) {
+                    writer.write("\n        @Override\n");
+                    writer.write("        public " + value.type + " " + value.name + "() {\n");
+                    writer.write("            return " + value.name + ";\n");
+                    writer.write("        }\n");
+                }
+                writer.write("    }\n");
+                writer.write("}\n");
+            }
+        } catch (Exception e) {
+            StringWriter sw = new StringWriter();
+            PrintWriter pw = new PrintWriter(sw);
+            e.printStackTrace(pw);
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Error saving resource.");
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, sw.toString());
+        }
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        Set<String> annotations = new LinkedHashSet<>();
+        annotations.add(ConfigSection.class.getCanonicalName());
+        annotations.add(ConfigValue.class.getCanonicalName());
+        return annotations;
+    }
+
+    private static class ValueData {
+        final String name;
+        final String type;
+        final String getter;
+        final String path;
+        final String defaultValue;
+
+        ValueData(String name, String type, String getter, String path, String defaultValue) {
+            this.name = name;
+            this.type = type;
+            this.getter = getter;
+            this.path = path;
+            this.defaultValue = defaultValue;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.ivan1pl.spigot.utils;
+
+import com.google.auto.service.AutoService;
+import com.ivan1pl.spigot.annotations.EventListener;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Processor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * <p>Compile-time annotation processor generating event executors for methods annotated with {@link EventListener}.
+ * </p>
+ *
+ * <p>Executors are generated in the package of the listener class. The list of generated executors is written to
+ * {@value EventUtils#INDEX_FILE} in the final processing round and read by {@link EventUtils} when the plugin is
+ * enabled.</p>
+ */
+@AutoService(Processor.class)
+public class ListenerGenerator extends AbstractProcessor {
+    private final List<String> index = new ArrayList<>();
+    private final List<Element> originatingElements = new ArrayList<>();
+    private final Map<String, Integer> executorCounters = new HashMap<>();
+
+    @Override
+    public boolean process(Set<? extends TypeElement> set, RoundEnvironment roundEnvironment) {
+        for (ExecutableElement element : ElementFilter.methodsIn(
+                roundEnvironment.getElementsAnnotatedWith(EventListener.class))) {
+            originatingElements.add(element);
+            if (validateListenerMethod(element)) {
+                generateExecutor(element);
+            }
+        }
+
+        if (roundEnvironment.processingOver() && !index.isEmpty()) {
+            writeIndex();
+        }
+        return false;
+    }
+
+    private boolean validateListenerMethod(ExecutableElement element) {
+        TypeElement owner = (TypeElement) element.getEnclosingElement();
+        TypeElement eventType = processingEnv.getElementUtils().getTypeElement("org.bukkit.event.Event");
+        TypeElement listenerType = processingEnv.getElementUtils().getTypeElement("org.bukkit.event.Listener");
+        boolean valid = true;
+        if (element.getModifiers().contains(Modifier.PRIVATE) || element.getModifiers().contains(Modifier.STATIC)) {
+            error(element, "Event listener method must not be private or static.");
+            valid = false;
+        }
+        if (element.getParameters().size() != 1 || (eventType != null && !processingEnv.getTypeUtils().isAssignable(
+                element.getParameters().get(0).asType(), eventType.asType()))) {
+            error(element, "Event listener method must take exactly one parameter of an event type.");
+            valid = false;
+        }
+        if (!owner.getModifiers().contains(Modifier.PUBLIC) || owner.getModifiers().contains(Modifier.ABSTRACT) ||
+                (owner.getNestingKind().isNested() && !owner.getModifiers().contains(Modifier.STATIC))) {
+            error(element, "Event listener class must be public, non-abstract and top-level or static.");
+            valid = false;
+        }
+        if (listenerType != null &&
+                !processingEnv.getTypeUtils().isAssignable(owner.asType(), listenerType.asType())) {
+            error(element, "Event listener class must implement " + listenerType.getQualifiedName() + ".");
+            valid = false;
+        }
+        boolean hasConstructor = ElementFilter.constructorsIn(owner.getEnclosedElements()).stream()
+                .anyMatch(c -> c.getParameters().isEmpty() && c.getModifiers().contains(Modifier.PUBLIC));
+        if (!hasConstructor) {
+            error(element, "Event listener class must have a public no-argument constructor.");
+            valid = false;
+        }
+        return valid;
+    }
+
+    private void generateExecutor(ExecutableElement element) {
+        TypeElement owner = (TypeElement) element.getEnclosingElement();
+        EventListener eventListener = element.getAnnotation(EventListener.class);
+        String packageName = processingEnv.getElementUtils().getPackageOf(owner).getQualifiedName().toString();
+        String ownerBinaryName = processingEnv.getElementUtils().getBinaryName(owner).toString();
+        String ownerSimpleName = packageName.isEmpty() ? ownerBinaryName :
+                ownerBinaryName.substring(packageName.length() + 1);
+        int counter = executorCounters.merge(ownerBinaryName, 1, Integer::sum) - 1;
+        String executorSimpleName = ownerSimpleName + "$$EventExecutor" + counter;
+        String executorName = packageName.isEmpty() ? executorSimpleName : packageName + "." + executorSimpleName;
+        TypeMirror eventTypeMirror = element.getParameters().get(0).asType();
+        TypeElement eventType = (TypeElement) processingEnv.getTypeUtils().asElement(eventTypeMirror);
+        String eventName = eventType.getQualifiedName().toString();
+
+        try {
+            JavaFileObject source = processingEnv.getFiler().createSourceFile(executorName, element);
+            try (Writer writer = source.openWriter()) {
+                if (!packageName.isEmpty()) {
+                    writer.write("package " + packageName + ";\n\n");
+                }
+                writer.write("/**\n * Event executor for {@code " + owner.getQualifiedName() + "#" +
+                        element.getSimpleName() + "}, generated by spigot-utils.\n */\n");
+                writer.write("public final class " + executorSimpleName +
+                        " implements org.bukkit.plugin.EventExecutor {\n");
+                writer.write("    @Override\n");
+                writer.write("    public void execute(org.bukkit.event.Listener listener, org.bukkit.event.Event event)" +
+                        " throws org.bukkit.event.EventException {\n");
+                writer.write("        if (!(event instanceof " + eventName + ")) {\n");
+                writer.write("            return;\n");
+                writer.write("        }\n");
+                writer.write("        try {\n");
+                writer.write("            ((" + owner.getQualifiedName() + ") listener)." + element.getSimpleName() +
+                        "((" + eventName + ") event);\n");
+                writer.write("        } catch (Throwable t) {\n");
+                writer.write("            throw new org.bukkit.event.EventException(t);\n");
+                writer.write("        }\n");
+                writer.write("    }\n");
+                writer.write("}\n");
+            }
+        } catch (Exception e) {
+            reportException(e);
+            return;
+        }
+
+        index.add(String.join("\t",
+                ownerBinaryName,
+                processingEnv.getElementUtils().getBinaryName(eventType).toString(),
+                executorName,
+                eventListener.priority().name(),
+                Boolean.toString(eventListener.ignoreCancelled()),
+                Boolean.toString(eventListener.timed()),
+                element.getSimpleName().toString()));
+    }
+
+    private void writeIndex() {
+        try {
+            FileObject resource = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "",
+                    EventUtils.INDEX_FILE, originatingElements.toArray(new Element[0]));
+            try (Writer writer = resource.openWriter()) {
+                for (String line : index) {
+                    writer.write(line);
+                    writer.write('\n');
+                }
+            }
+        } catch (Exception e) {
+            reportException(e);
+        }
+    }
+
+    private void reportException(Exception e) {
+        StringWriter sw = new StringWriter();
+        PrintWriter pw = new PrintWriter(sw);
+        e.printStackTrace(pw);
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Error saving resource.");
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, sw.toString());
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Collections.singleton(EventListener.class.getCanonicalName());
+    }
+}
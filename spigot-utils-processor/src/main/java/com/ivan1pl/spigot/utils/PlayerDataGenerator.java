@@ -0,0 +1,219 @@
+package com.ivan1pl.spigot.utils;
+
+import com.google.auto.service.AutoService;
+import com.ivan1pl.spigot.annotations.PlayerData;
+import com.ivan1pl.spigot.storage.PlayerDataCodec;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Processor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * <p>Compile-time annotation processor generating binary codecs for classes annotated with {@link PlayerData}.</p>
+ *
+ * <p>The generated codec writes the number of fields followed by the field values in declaration order (fields of
+ * superclasses first). When reading data written by an older version of the class, fields missing from the data keep
+ * their initial values.</p>
+ */
+@AutoService(Processor.class)
+public class PlayerDataGenerator extends AbstractProcessor {
+    @Override
+    public boolean process(Set<? extends TypeElement> set, RoundEnvironment roundEnvironment) {
+        for (TypeElement element : ElementFilter.typesIn(
+                roundEnvironment.getElementsAnnotatedWith(PlayerData.class))) {
+            List<FieldData> fields = getFields(element);
+            if (fields != null) {
+                generateCodec(element, fields);
+            }
+        }
+        return false;
+    }
+
+    private List<FieldData> getFields(TypeElement element) {
+        boolean valid = true;
+        if (element.getKind() != ElementKind.CLASS || !element.getModifiers().contains(Modifier.PUBLIC) ||
+                element.getModifiers().contains(Modifier.ABSTRACT) ||
+                (element.getNestingKind().isNested() && !element.getModifiers().contains(Modifier.STATIC))) {
+            error(element, "Player data class must be public, non-abstract and top-level or static.");
+            valid = false;
+        }
+        boolean hasConstructor = ElementFilter.constructorsIn(element.getEnclosedElements()).stream()
+                .anyMatch(c -> c.getParameters().isEmpty() && c.getModifiers().contains(Modifier.PUBLIC));
+        if (!hasConstructor) {
+            error(element, "Player data class must have a public no-argument constructor.");
+            valid = false;
+        }
+        List<FieldData> fields = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+        PackageElement packageElement = processingEnv.getElementUtils().getPackageOf(element);
+        for (VariableElement field : getInstanceFields(element)) {
+            Set<Modifier> modifiers = field.getModifiers();
+            if (modifiers.contains(Modifier.PRIVATE) || modifiers.contains(Modifier.FINAL)) {
+                error(field, "Player data field must not be private or final.");
+                valid = false;
+                continue;
+            }
+            //the codec is generated in the package of the data class
+            if (!modifiers.contains(Modifier.PUBLIC) &&
+                    !processingEnv.getElementUtils().getPackageOf(field).equals(packageElement)) {
+                error(field, "Inherited player data field declared in another package must be public.");
+                valid = false;
+                continue;
+            }
+            if (!names.add(field.getSimpleName().toString())) {
+                error(field, "Player data field hides an inherited field: " + field.getSimpleName());
+                valid = false;
+                continue;
+            }
+            String kind = getKind(field.asType());
+            if (kind == null) {
+                error(field, String.format("The type %s is not supported.", field.asType()));
+                valid = false;
+                continue;
+            }
+            fields.add(new FieldData(field.getSimpleName().toString(), kind));
+        }
+        if (fields.size() > 0xFFFF) {
+            error(element, "Player data class has too many fields.");
+            valid = false;
+        }
+        return valid ? fields : null;
+    }
+
+    private List<VariableElement> getInstanceFields(TypeElement element) {
+        Deque<TypeElement> hierarchy = new ArrayDeque<>();
+        TypeElement type = element;
+        while (type != null && !type.getQualifiedName().contentEquals(Object.class.getCanonicalName())) {
+            hierarchy.push(type);
+            TypeMirror superclass = type.getSuperclass();
+            type = superclass.getKind() == TypeKind.DECLARED ?
+                    (TypeElement) processingEnv.getTypeUtils().asElement(superclass) : null;
+        }
+        List<VariableElement> fields = new ArrayList<>();
+        for (TypeElement t : hierarchy) {
+            for (VariableElement field : ElementFilter.fieldsIn(t.getEnclosedElements())) {
+                if (!field.getModifiers().contains(Modifier.STATIC) &&
+                        !field.getModifiers().contains(Modifier.TRANSIENT)) {
+                    fields.add(field);
+                }
+            }
+        }
+        return fields;
+    }
+
+    private String getKind(TypeMirror type) {
+        switch (type.getKind()) {
+            case BOOLEAN:
+                return "Boolean";
+            case INT:
+                return "Int";
+            case LONG:
+                return "Long";
+            case DOUBLE:
+                return "Double";
+            case DECLARED:
+                return processingEnv.getTypeUtils().isSameType(type, processingEnv.getElementUtils()
+                        .getTypeElement(String.class.getCanonicalName()).asType()) ? "UTF" : null;
+            default:
+                return null;
+        }
+    }
+
+    private void generateCodec(TypeElement element, List<FieldData> fields) {
+        String packageName = processingEnv.getElementUtils().getPackageOf(element).getQualifiedName().toString();
+        String binaryName = processingEnv.getElementUtils().getBinaryName(element).toString();
+        String simpleName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1)) +
+                PlayerDataCodec.SUFFIX;
+        String className = element.getQualifiedName().toString();
+
+        try {
+            JavaFileObject source = processingEnv.getFiler().createSourceFile(
+                    packageName.isEmpty() ? simpleName : packageName + "." + simpleName, element);
+            try (Writer writer = source.openWriter()) {
+                if (!packageName.isEmpty()) {
+                    writer.write("package " + packageName + ";\n\n");
+                }
+                writer.write("/**\n * Player data codec for {@code " + className +
+                        "}, generated by spigot-utils.\n */\n");
+                writer.write("public final class " + simpleName + " implements " +
+                        PlayerDataCodec.class.getCanonicalName() + "<" + className + "> {\n");
+                writer.write("    @Override\n");
+                writer.write("    public " + className + " create() {\n");
+                writer.write("        return new " + className + "();\n");
+                writer.write("    }\n\n");
+                writer.write("    @Override\n");
+                writer.write("    public void write(java.io.DataOutput out, " + className + " value) " +
+                        "throws java.io.IOException {\n");
+                writer.write("        out.writeShort(" + fields.size() + ");\n");
+                for (FieldData field : fields) {
+                    if ("UTF".equals(field.kind)) {
+                        writer.write("        " + PlayerDataCodec.class.getCanonicalName() +
+                                ".writeString(out, value." + field.name + ");\n");
+                    } else {
+                        writer.write("        out.write" + field.kind + "(value." + field.name + ");\n");
+                    }
+                }
+                writer.write("    }\n\n");
+                writer.write("    @Override\n");
+                writer.write("    public " + className + " read(java.io.DataInput in) throws java.io.IOException {\n");
+                writer.write("        " + className + " value = new " + className + "();\n");
+                writer.write("        int fields = in.readUnsignedShort();\n");
+                for (int i = 0; i < fields.size(); ++i) {
+                    FieldData field = fields.get(i);
+                    writer.write("        if (fields > " + i + ") {\n");
+                    if ("UTF".equals(field.kind)) {
+                        writer.write("            value." + field.name + " = " +
+                                PlayerDataCodec.class.getCanonicalName() + ".readString(in);\n");
+                    } else {
+                        writer.write("            value." + field.name + " = in.read" + field.kind + "();\n");
+                    }
+                    writer.write("        }\n");
+                }
+                writer.write("        return value;\n");
+                writer.write("    }\n");
+                writer.write("}\n");
+            }
+        } catch (Exception e) {
+            StringWriter sw = new StringWriter();
+            PrintWriter pw = new PrintWriter(sw);
+            e.printStackTrace(pw);
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Error saving resource.");
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, sw.toString());
+        }
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Collections.singleton(PlayerData.class.getCanonicalName());
+    }
+
+    private static class FieldData {
+        final String name;
+        final String kind;
+
+        FieldData(String name, String kind) {
+            this.name = name;
+            this.kind = kind;
+        }
+    }
+}
@@ -12,6 +12,7 @@ import javax.annotation.processing.Processor;
 import javax.annotation.processing.RoundEnvironment;
 import javax.lang.model.SourceVersion;
 import javax.lang.model.element.*;
+import javax.lang.model.type.ArrayType;
 import javax.lang.model.type.PrimitiveType;
 import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
@@ -26,19 +27,43 @@ import java.util.*;
 import java.util.stream.Collectors;
 
 /**
- * Compile-time annotation processor used for generating plugin.yml file.
+ * <p>Compile-time annotation processor used for generating plugin.yml file.</p>
+ *
+ * <p>Annotated elements are collected in all processing rounds and the file is written in the final round (only if
+ * its content has changed). The processor is registered as aggregating in Gradle incremental compilation.</p>
  */
 @AutoService(Processor.class)
 public class PluginGenerator extends AbstractProcessor {
+    private static final Set<String> HELP_OPTION_NAMES =
+            Collections.unmodifiableSet(new HashSet<>(Arrays.asList("-h", "--help", "help")));
+
+    private final Map<String, Object> pluginFile = new LinkedHashMap<>();
+    private final Map<String, List<CommandData>> commands = new LinkedHashMap<>();
+    private final List<Element> originatingElements = new ArrayList<>();
+    private Element pluginElement;
+
     @Override
     public boolean process(Set<? extends TypeElement> set, RoundEnvironment roundEnvironment) {
-        Map<String, Object> pluginFile = new LinkedHashMap<>();
+        for (Element element : roundEnvironment.getElementsAnnotatedWith(Plugin.class)) {
+            if (pluginElement != null) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                        "Only one class can be annotated with @Plugin, already found: " + pluginElement.asType(),
+                        element);
+                continue;
+            }
+            pluginElement = element;
+            originatingElements.add(element);
+            processPlugin(element);
+        }
+        collectCommands(roundEnvironment);
 
-        Set<? extends Element> pluginElements = roundEnvironment.getElementsAnnotatedWith(Plugin.class);
-        if (pluginElements == null || pluginElements.size() != 1) {
-            return false;
+        if (roundEnvironment.processingOver() && pluginElement != null) {
+            writePluginFile();
         }
-        Element pluginElement = pluginElements.iterator().next();
+        return false;
+    }
+
+    private void processPlugin(Element pluginElement) {
         Plugin pluginAnnotation = pluginElement.getAnnotation(Plugin.class);
         pluginFile.put("main", pluginElement.asType().toString());
         pluginFile.put("name", pluginAnnotation.name());
@@ -75,32 +100,44 @@ public class PluginGenerator extends AbstractProcessor {
         if (permissions != null && !permissions.isEmpty()) {
             pluginFile.put("permissions", permissions);
         }
+    }
 
-        Map<String, Object> commands = processCommands(roundEnvironment);
-        if (commands != null && !commands.isEmpty()) {
-            pluginFile.put("commands", commands);
+    private void writePluginFile() {
+        Map<String, Object> commandsEntry = processCommands();
+        if (commandsEntry != null && !commandsEntry.isEmpty()) {
+            pluginFile.put("commands", commandsEntry);
         }
 
         try {
-            FileObject resource = processingEnv.getFiler().createResource(
-                    StandardLocation.CLASS_OUTPUT, "", "plugin.yml");
             DumperOptions options = new DumperOptions();
             options.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
             options.setPrettyFlow(true);
 
             Yaml yaml = new Yaml(options);
             String output = yaml.dump(pluginFile);
+            if (output.equals(readResource("plugin.yml"))) {
+                return;
+            }
+            FileObject resource = processingEnv.getFiler().createResource(
+                    StandardLocation.CLASS_OUTPUT, "", "plugin.yml", originatingElements.toArray(new Element[0]));
             Writer writer = resource.openWriter();
             writer.write(output);
             writer.close();
-            return true;
         } catch (Exception e) {
             StringWriter sw = new StringWriter();
             PrintWriter pw = new PrintWriter(sw);
             e.printStackTrace(pw);
             processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Error saving resource.");
             processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, sw.toString());
-            return false;
+        }
+    }
+
+    private String readResource(String name) {
+        try {
+            FileObject resource = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", name);
+            return resource.getCharContent(true).toString();
+        } catch (Exception e) {
+            return null;
         }
     }
 
@@ -140,9 +177,12 @@ public class PluginGenerator extends AbstractProcessor {
         return permissionEntry;
     }
 
-    private Map<String, Object> processCommands(RoundEnvironment roundEnvironment) {
-        Map<String, List<CommandData>> commands = new LinkedHashMap<>();
+    private void collectCommands(RoundEnvironment roundEnvironment) {
         for (Element element : roundEnvironment.getElementsAnnotatedWith(Command.class)) {
+            originatingElements.add(element);
+            if (!validateCommandMethod((ExecutableElement) element)) {
+                continue;
+            }
             Command command = element.getAnnotation(Command.class);
             List<CommandData> commandData = commands.computeIfAbsent(command.command(), k -> new ArrayList<>());
             commandData.add(new CommandData(
@@ -155,6 +195,10 @@ public class PluginGenerator extends AbstractProcessor {
                     getParamFlags((ExecutableElement) element)));
         }
         for (Element element : roundEnvironment.getElementsAnnotatedWith(Command.List.class)) {
+            originatingElements.add(element);
+            if (!validateCommandMethod((ExecutableElement) element)) {
+                continue;
+            }
             for (Command command : element.getAnnotation(Command.List.class).value()) {
                 List<CommandData> commandData = commands.computeIfAbsent(command.command(), k -> new ArrayList<>());
                 commandData.add(new CommandData(
@@ -167,7 +211,10 @@ public class PluginGenerator extends AbstractProcessor {
                         getParamFlags((ExecutableElement) element)));
             }
         }
-        commands.values().forEach(l -> l.forEach(c -> c.argumentParser = CommandUtils.getArgumentParser(
+    }
+
+    private Map<String, Object> processCommands() {
+        commands.values().forEach(l -> l.forEach(c -> c.argumentParser = ArgumentUtils.getArgumentParser(
                 c.name, c.description, c.annotations, null, c.flags)));
 
         Map<String, Object> commandsEntry = new LinkedHashMap<>();
@@ -215,6 +262,133 @@ public class PluginGenerator extends AbstractProcessor {
         return commandEntry;
     }
 
+    private boolean validateCommandMethod(ExecutableElement element) {
+        boolean valid = true;
+        if (!element.getModifiers().contains(Modifier.PUBLIC) || element.getModifiers().contains(Modifier.STATIC)) {
+            error(element, "Command method must be public and non-static.");
+            valid = false;
+        }
+        if (element.getAnnotation(CacheResult.class) != null && !isMessageType(element.getReturnType())) {
+            error(element, "Method annotated with @CacheResult must return String or String[].");
+            valid = false;
+        }
+        TypeElement commandSender = processingEnv.getElementUtils().getTypeElement("org.bukkit.command.CommandSender");
+        //names of the help option added to every command
+        Set<String> names = new HashSet<>(HELP_OPTION_NAMES);
+        for (VariableElement parameter : element.getParameters()) {
+            TypeMirror type = parameter.asType();
+            CommandOption commandOption = parameter.getAnnotation(CommandOption.class);
+            CommandParameter commandParameter = parameter.getAnnotation(CommandParameter.class);
+            TypeKind kind = getSupportedKind(type);
+            if (kind == null) {
+                if (commandSender == null ||
+                        !processingEnv.getTypeUtils().isAssignable(commandSender.asType(), type)) {
+                    error(parameter, String.format("The type %s is not supported.", type));
+                    valid = false;
+                }
+                continue;
+            }
+            if (commandOption != null && commandParameter != null) {
+                error(parameter, "Parameter cannot be annotated with both @CommandOption and @CommandParameter.");
+                valid = false;
+            } else if (commandOption != null) {
+                String longName = commandOption.name().isEmpty() ? null : "--" + commandOption.name();
+                String shortName = Character.isLetterOrDigit(commandOption.shortName()) ?
+                        "-" + commandOption.shortName() : null;
+                if (longName == null && shortName == null) {
+                    error(parameter, "Option name not specified.");
+                    valid = false;
+                }
+                String dest = commandOption.name().isEmpty() ? String.valueOf(commandOption.shortName()) :
+                        commandOption.name();
+                for (String name : Arrays.asList(longName, shortName, dest)) {
+                    if (name != null && HELP_OPTION_NAMES.contains(name)) {
+                        error(element, String.format("Option name %s of parameter %s is reserved for the help option.", name,
+                                parameter.getSimpleName()));
+                        valid = false;
+                        break;
+                    } else if (name != null && !names.add(name)) {
+                        error(parameter, "Duplicate option or parameter name: " + name);
+                        valid = false;
+                    }
+                }
+                if (kind == TypeKind.BOOLEAN && !commandOption.defaultValue().isEmpty()) {
+                    processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                            "Default value is ignored for boolean options.", parameter);
+                } else if (!isValidDefaultValue(kind, commandOption.defaultValue())) {
+                    error(parameter, "Invalid default value for type " + type + ": " + commandOption.defaultValue());
+                    valid = false;
+                }
+            } else if (commandParameter != null) {
+                if (HELP_OPTION_NAMES.contains(commandParameter.name())) {
+                    error(element, String.format("Parameter name %s of parameter %s is reserved for the help option.",
+                            commandParameter.name(), parameter.getSimpleName()));
+                    valid = false;
+                } else if (!names.add(commandParameter.name())) {
+                    error(parameter, "Duplicate option or parameter name: " + commandParameter.name());
+                    valid = false;
+                }
+                if (!isValidDefaultValue(kind, commandParameter.defaultValue())) {
+                    error(parameter, "Invalid default value for type " + type + ": " +
+                            commandParameter.defaultValue());
+                    valid = false;
+                }
+            } else {
+                error(parameter, "Parameter must be annotated with either @CommandOption or @CommandParameter.");
+                valid = false;
+            }
+        }
+        return valid;
+    }
+
+    private boolean isMessageType(TypeMirror type) {
+        TypeMirror string = processingEnv.getElementUtils().getTypeElement(String.class.getCanonicalName()).asType();
+        if (type.getKind() == TypeKind.ARRAY) {
+            type = ((ArrayType) type).getComponentType();
+        }
+        return processingEnv.getTypeUtils().isSameType(type, string);
+    }
+
+    private TypeKind getSupportedKind(TypeMirror type) {
+        if (type.getKind() == TypeKind.DECLARED) {
+            if (processingEnv.getTypeUtils().isSameType(type,
+                    processingEnv.getElementUtils().getTypeElement(String.class.getCanonicalName()).asType())) {
+                return TypeKind.DECLARED;
+            }
+            try {
+                type = processingEnv.getTypeUtils().unboxedType(type);
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+        switch (type.getKind()) {
+            case BOOLEAN:
+            case INT:
+            case LONG:
+                return type.getKind();
+            default:
+                return null;
+        }
+    }
+
+    private static boolean isValidDefaultValue(TypeKind kind, String value) {
+        if (value.isEmpty()) {
+            return true;
+        }
+        try {
+            ArgumentUtils.convertDefaultValue(kind == TypeKind.BOOLEAN ? Boolean.class :
+                    kind == TypeKind.INT ? Integer.class :
+                    kind == TypeKind.LONG ? Long.class : String.class, value);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
     private Annotation[][] getParamAnnotations(ExecutableElement element) {
         List<Annotation[]> paramAnnotations = new LinkedList<>();
         for (VariableElement childElement : element.getParameters()) {
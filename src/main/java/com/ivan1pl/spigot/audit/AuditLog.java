@@ -0,0 +1,248 @@
+package com.ivan1pl.spigot.audit;
+
+import com.ivan1pl.spigot.utils.CommandInterceptor;
+import com.ivan1pl.spigot.utils.CommandInvocation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * <p>Command interceptor which writes executed commands to an append-only audit log.</p>
+ *
+ * <p>Records are added to a bounded queue and written to disk in batches by a background thread, so that the server
+ * thread never waits for disk I/O. When the queue is full (the writer cannot keep up), new records are dropped and
+ * counted (see {@link #getDropped()}). The current log file is rotated when it exceeds the configured size.</p>
+ *
+ * <p>Register the log using {@link com.ivan1pl.spigot.utils.CommandUtils#addInterceptor(
+ * org.bukkit.plugin.java.JavaPlugin, CommandInterceptor)} and remember to {@link #close()} it when the plugin is
+ * disabled. Use {@link AuditLogReader} to search the log.</p>
+ */
+public class AuditLog implements CommandInterceptor, Closeable {
+    /**
+     * Name of the current log file in the log directory. Rotated files are named {@code audit-<timestamp>.log}, the
+     * timestamp is increased if necessary so that each rotated file has a unique name.
+     */
+    public static final String FILE_NAME = "audit.log";
+
+    private static final long FLUSH_INTERVAL = TimeUnit.MILLISECONDS.toNanos(200);
+    private static final int BATCH_SIZE = 64 * 1024;
+
+    private final Path directory;
+    private final int capacity;
+    private final long maxFileSize;
+    private final Predicate<CommandInvocation> filter;
+    private final Logger logger;
+    private final Queue<AuditRecord> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queueSize = new AtomicInteger();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final Map<Method, String> handlerNames = new ConcurrentHashMap<>();
+    private final Thread writer;
+    private volatile boolean running = true;
+    private FileChannel channel;
+    private long lastRotation;
+
+    /**
+     * Create audit log recording all commands, with default queue capacity (8192 records) and maximum file size
+     * (16 MiB).
+     * @param directory log directory
+     * @param logger logger used to report write errors
+     * @throws IOException if the log file could not be opened
+     */
+    public AuditLog(Path directory, Logger logger) throws IOException {
+        this(directory, logger, 8192, 16 * 1024 * 1024, i -> true);
+    }
+
+    /**
+     * Create audit log.
+     * @param directory log directory
+     * @param logger logger used to report write errors
+     * @param capacity maximum number of records waiting to be written
+     * @param maxFileSize size (in bytes) after which the log file is rotated
+     * @param filter predicate selecting commands which should be recorded
+     * @throws IOException if the log file could not be opened
+     */
+    public AuditLog(Path directory, Logger logger, int capacity, long maxFileSize,
+                    Predicate<CommandInvocation> filter) throws IOException {
+        this.directory = directory;
+        this.logger = logger;
+        this.capacity = capacity;
+        this.maxFileSize = maxFileSize;
+        this.filter = filter;
+        Files.createDirectories(directory);
+        this.channel = openChannel();
+        this.writer = new Thread(this::run, "spigot-utils audit log writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    @Override
+    public void afterDispatch(CommandInvocation invocation, boolean handled) {
+        if (!running || !filter.test(invocation)) {
+            return;
+        }
+        if (queueSize.incrementAndGet() > capacity) {
+            queueSize.decrementAndGet();
+            dropped.incrementAndGet();
+            return;
+        }
+        AuditRecord.Outcome outcome;
+        if (invocation.getError() != null) {
+            outcome = AuditRecord.Outcome.FAILURE;
+        } else if (invocation.getMethod() == null) {
+            outcome = AuditRecord.Outcome.REJECTED;
+        } else {
+            outcome = AuditRecord.Outcome.SUCCESS;
+        }
+        Method method = invocation.getMethod();
+        queue.offer(new AuditRecord(
+                System.currentTimeMillis(),
+                invocation.getSender().getName(),
+                invocation.getCommand(),
+                invocation.getArgs(),
+                method == null ? null : handlerNames.computeIfAbsent(method, AuditLog::getHandlerName),
+                outcome,
+                TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - invocation.getStartTime())));
+    }
+
+    /**
+     * Get the number of records written to the log.
+     * @return written record count
+     */
+    public long getWritten() {
+        return written.get();
+    }
+
+    /**
+     * Get the number of records dropped because the queue was full or they could not be written.
+     * @return dropped record count
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Stop accepting new records, write all queued records and close the log file.
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BATCH_SIZE);
+        StringBuilder builder = new StringBuilder();
+        while (running) {
+            drain(buffer, builder);
+            LockSupport.parkNanos(this, FLUSH_INTERVAL);
+        }
+        drain(buffer, builder);
+        try {
+            channel.close();
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Failed to close audit log.", e);
+        }
+    }
+
+    private void drain(ByteBuffer buffer, StringBuilder builder) {
+        AuditRecord record;
+        int count = 0;
+        while ((record = queue.poll()) != null) {
+            queueSize.decrementAndGet();
+            record.format(builder);
+            ++count;
+            if (builder.length() >= BATCH_SIZE / 4) {
+                write(buffer, builder, count);
+                count = 0;
+            }
+        }
+        if (count > 0) {
+            write(buffer, builder, count);
+        }
+    }
+
+    private void write(ByteBuffer buffer, StringBuilder builder, int count) {
+        byte[] bytes = builder.toString().getBytes(StandardCharsets.UTF_8);
+        builder.setLength(0);
+        try {
+            if (!channel.isOpen()) {
+                //a previous rotation failed to reopen the log file
+                channel = openChannel();
+            }
+            for (int offset = 0; offset < bytes.length; offset += buffer.capacity()) {
+                buffer.clear();
+                buffer.put(bytes, offset, Math.min(buffer.capacity(), bytes.length - offset));
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+        } catch (IOException e) {
+            dropped.addAndGet(count);
+            logger.log(Level.SEVERE, "Failed to write audit log.", e);
+            return;
+        }
+        written.addAndGet(count);
+        try {
+            if (channel.size() >= maxFileSize) {
+                rotate();
+            }
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Failed to rotate audit log.", e);
+        }
+    }
+
+    private void rotate() throws IOException {
+        channel.force(true);
+        channel.close();
+        //rotations within the same millisecond must not overwrite each other
+        long rotation = Math.max(System.currentTimeMillis(), lastRotation + 1);
+        Path rotated = directory.resolve("audit-" + rotation + ".log");
+        while (Files.exists(rotated)) {
+            rotated = directory.resolve("audit-" + ++rotation + ".log");
+        }
+        lastRotation = rotation;
+        try {
+            Files.move(directory.resolve(FILE_NAME), rotated, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            channel = openChannel();
+        }
+    }
+
+    private static String getHandlerName(Method m) {
+        return m.getDeclaringClass().getName() + "#" + m.getName() + Arrays.stream(m.getParameterTypes())
+                .map(Class::getTypeName).collect(Collectors.joining(",", "(", ")"));
+    }
+
+    private FileChannel openChannel() throws IOException {
+        return FileChannel.open(directory.resolve(FILE_NAME),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+}
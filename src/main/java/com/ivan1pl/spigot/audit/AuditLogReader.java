@@ -0,0 +1,146 @@
+package com.ivan1pl.spigot.audit;
+
+import net.sourceforge.argparse4j.ArgumentParsers;
+import net.sourceforge.argparse4j.inf.ArgumentParser;
+import net.sourceforge.argparse4j.inf.ArgumentParserException;
+import net.sourceforge.argparse4j.inf.Namespace;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * <p>Offline search tool for logs written by {@link AuditLog}.</p>
+ *
+ * <p>Can be used from the command line:
+ * {@code java -cp spigot-utils.jar com.ivan1pl.spigot.audit.AuditLogReader <directory> [options]}
+ * (run with {@code -h} to list available filters).</p>
+ */
+public class AuditLogReader {
+
+    private AuditLogReader() {}
+
+    /**
+     * Get log files in the given directory, oldest first.
+     * @param directory log directory
+     * @return log files
+     * @throws IOException if the directory could not be read
+     */
+    public static List<Path> getLogFiles(Path directory) throws IOException {
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(directory)) {
+            files = stream.filter(p -> p.getFileName().toString().matches("audit-\\d+\\.log"))
+                    .sorted((p1, p2) -> Long.compare(getRotationTime(p1), getRotationTime(p2)))
+                    .collect(Collectors.toCollection(ArrayList::new));
+        }
+        Path current = directory.resolve(AuditLog.FILE_NAME);
+        if (Files.exists(current)) {
+            files.add(current);
+        }
+        return files;
+    }
+
+    /**
+     * Scan all log files in the given directory. Malformed lines (e.g. a line truncated when the server crashed) are
+     * skipped.
+     * @param directory log directory
+     * @param filter predicate selecting records which should be passed to the consumer
+     * @param consumer consumer of matching records
+     * @return number of skipped malformed lines
+     * @throws IOException if log files could not be read
+     */
+    public static long scan(Path directory, Predicate<AuditRecord> filter, Consumer<AuditRecord> consumer)
+            throws IOException {
+        long malformed = 0;
+        for (Path file : getLogFiles(directory)) {
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isEmpty()) {
+                        continue;
+                    }
+                    AuditRecord record;
+                    try {
+                        record = AuditRecord.parse(line);
+                    } catch (IllegalArgumentException e) {
+                        ++malformed;
+                        continue;
+                    }
+                    if (filter.test(record)) {
+                        consumer.accept(record);
+                    }
+                }
+            }
+        }
+        return malformed;
+    }
+
+    /**
+     * Search the log from the command line. Matching records are printed to the standard output, the number of
+     * skipped malformed lines (if any) to the standard error.
+     * @param args log directory followed by filter options
+     * @throws IOException if log files could not be read
+     */
+    public static void main(String[] args) throws IOException {
+        ArgumentParser parser = ArgumentParsers.newFor("AuditLogReader").build()
+                .description("Search command audit log.");
+        parser.addArgument("directory").help("log directory");
+        parser.addArgument("-s", "--sender").help("show only commands executed by this sender");
+        parser.addArgument("-c", "--command").help("show only this command");
+        parser.addArgument("-o", "--outcome").type(AuditRecord.Outcome.class).help("show only this outcome");
+        parser.addArgument("--since").help("show only commands executed at or after this time (ISO-8601)");
+        parser.addArgument("--until").help("show only commands executed before this time (ISO-8601)");
+        Namespace namespace;
+        try {
+            namespace = parser.parseArgs(args);
+        } catch (ArgumentParserException e) {
+            parser.handleError(e);
+            System.exit(1);
+            return;
+        }
+
+        Predicate<AuditRecord> filter = r -> true;
+        String sender = namespace.getString("sender");
+        if (sender != null) {
+            filter = filter.and(r -> r.getSender().equalsIgnoreCase(sender));
+        }
+        String command = namespace.getString("command");
+        if (command != null) {
+            filter = filter.and(r -> r.getCommand().equalsIgnoreCase(command));
+        }
+        AuditRecord.Outcome outcome = namespace.get("outcome");
+        if (outcome != null) {
+            filter = filter.and(r -> r.getOutcome() == outcome);
+        }
+        String since = namespace.getString("since");
+        if (since != null) {
+            long time = Instant.parse(since).toEpochMilli();
+            filter = filter.and(r -> r.getTimestamp() >= time);
+        }
+        String until = namespace.getString("until");
+        if (until != null) {
+            long time = Instant.parse(until).toEpochMilli();
+            filter = filter.and(r -> r.getTimestamp() < time);
+        }
+
+        long malformed = scan(Paths.get(namespace.getString("directory")), filter, System.out::println);
+        if (malformed > 0) {
+            System.err.println(String.format("Skipped %d malformed lines.", malformed));
+        }
+    }
+
+    private static long getRotationTime(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring("audit-".length(), name.length() - ".log".length()));
+    }
+}
@@ -0,0 +1,207 @@
+package com.ivan1pl.spigot.audit;
+
+import java.time.Instant;
+
+/**
+ * Single entry of the command audit log.
+ *
+ * Records are stored as lines of tab-separated fields: timestamp, sender, command, arguments, handler method, outcome
+ * and duration (in microseconds). The handler method is written as {@code class#method(parameter types)}. Tabs, line breaks and backslashes are escaped, arguments are separated by spaces.
+ */
+public class AuditRecord {
+    /**
+     * Outcome of an executed command.
+     */
+    public enum Outcome {
+        /**
+         * Command method was invoked and completed normally.
+         */
+        SUCCESS,
+
+        /**
+         * Command method (or one of the interceptors) threw an exception.
+         */
+        FAILURE,
+
+        /**
+         * No command method was invoked (invalid arguments, help screen or command stopped by an interceptor).
+         */
+        REJECTED,
+        ;
+    }
+
+    private final long timestamp;
+    private final String sender;
+    private final String command;
+    private final String[] args;
+    private final String handler;
+    private final Outcome outcome;
+    private final long duration;
+
+    /**
+     * Create new audit record.
+     * @param timestamp time when the command was executed, in milliseconds since epoch
+     * @param sender name of the command sender
+     * @param command command name
+     * @param args command arguments
+     * @param handler name of the method which handled the command, or {@code null} if there was none
+     * @param outcome command outcome
+     * @param duration command execution time, in microseconds
+     */
+    public AuditRecord(long timestamp, String sender, String command, String[] args, String handler, Outcome outcome,
+                       long duration) {
+        this.timestamp = timestamp;
+        this.sender = sender;
+        this.command = command;
+        this.args = args;
+        this.handler = handler;
+        this.outcome = outcome;
+        this.duration = duration;
+    }
+
+    /**
+     * Get the time when the command was executed.
+     * @return time in milliseconds since epoch
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Get the name of the command sender.
+     * @return sender name
+     */
+    public String getSender() {
+        return sender;
+    }
+
+    /**
+     * Get the command name.
+     * @return command name
+     */
+    public String getCommand() {
+        return command;
+    }
+
+    /**
+     * Get the command arguments.
+     * @return command arguments
+     */
+    public String[] getArgs() {
+        return args;
+    }
+
+    /**
+     * Get the method which handled the command, e.g. {@code com.example.Commands#give(org.bukkit.entity.Player,int)}.
+     * @return handler method, or {@code null} if no method was invoked
+     */
+    public String getHandler() {
+        return handler;
+    }
+
+    /**
+     * Get the command outcome.
+     * @return command outcome
+     */
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * Get the command execution time.
+     * @return execution time, in microseconds
+     */
+    public long getDuration() {
+        return duration;
+    }
+
+    /**
+     * Format this record as a single log line (including the line terminator).
+     * @param builder builder the line is appended to
+     */
+    void format(StringBuilder builder) {
+        builder.append(Instant.ofEpochMilli(timestamp)).append('\t');
+        escape(builder, sender);
+        builder.append('\t');
+        escape(builder, command);
+        builder.append('\t');
+        for (int i = 0; i < args.length; ++i) {
+            if (i > 0) {
+                builder.append(' ');
+            }
+            escape(builder, args[i]);
+        }
+        builder.append('\t');
+        escape(builder, handler == null ? "-" : handler);
+        builder.append('\t').append(outcome.name()).append('\t').append(duration).append('\n');
+    }
+
+    /**
+     * Parse log line created by {@link #format(StringBuilder)}.
+     * @param line log line (without the line terminator)
+     * @return parsed record
+     * @throws IllegalArgumentException if the line is malformed
+     */
+    static AuditRecord parse(String line) {
+        String[] fields = line.split("\t", -1);
+        if (fields.length != 7) {
+            throw new IllegalArgumentException("Malformed audit log line: " + line);
+        }
+        try {
+            String[] args = fields[3].isEmpty() ? new String[0] : fields[3].split(" ", -1);
+            for (int i = 0; i < args.length; ++i) {
+                args[i] = unescape(args[i]);
+            }
+            String handler = unescape(fields[4]);
+            return new AuditRecord(Instant.parse(fields[0]).toEpochMilli(), unescape(fields[1]), unescape(fields[2]),
+                    args, "-".equals(handler) ? null : handler, Outcome.valueOf(fields[5]),
+                    Long.parseLong(fields[6]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Malformed audit log line: " + line, e);
+        }
+    }
+
+    private static void escape(StringBuilder builder, String value) {
+        for (int i = 0; i < value.length(); ++i) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\': builder.append("\\\\"); break;
+                case '\t': builder.append("\\t"); break;
+                case '\n': builder.append("\\n"); break;
+                case '\r': builder.append("\\r"); break;
+                case ' ': builder.append("\\s"); break;
+                default: builder.append(c);
+            }
+        }
+    }
+
+    private static String unescape(String value) {
+        if (value.indexOf('\\') < 0) {
+            return value;
+        }
+        StringBuilder builder = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); ++i) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char next = value.charAt(++i);
+                switch (next) {
+                    case 't': builder.append('\t'); break;
+                    case 'n': builder.append('\n'); break;
+                    case 'r': builder.append('\r'); break;
+                    case 's': builder.append(' '); break;
+                    default: builder.append(next);
+                }
+            } else {
+                builder.append(c);
+            }
+        }
+        return builder.toString();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        format(builder);
+        return builder.substring(0, builder.length() - 1);
+    }
+}
@@ -1,6 +1,10 @@
 package com.ivan1pl.spigot.base;
 
+import com.ivan1pl.spigot.storage.PlayerDataStore;
 import com.ivan1pl.spigot.utils.CommandUtils;
+import com.ivan1pl.spigot.utils.ConfigUtils;
+import com.ivan1pl.spigot.utils.EventUtils;
+import com.ivan1pl.spigot.utils.SchedulerUtils;
 import org.bukkit.plugin.java.JavaPlugin;
 
 /**
@@ -15,5 +19,22 @@ public class BasePlugin extends JavaPlugin {
     public void onEnable() {
         super.onEnable();
         CommandUtils.initCommands(this);
+        EventUtils.initListeners(this);
+        SchedulerUtils.initScheduledTasks(this);
+    }
+
+    /**
+     * Executed when the plugin is disabled. Override to add additional behaviour (remember to invoke the method from
+     * the superclass if you do, otherwise scheduled tasks will keep running, player data will not be saved and other
+     * resources will not be released).
+     */
+    @Override
+    public void onDisable() {
+        CommandUtils.disableCommands(this);
+        EventUtils.disableListeners(this);
+        SchedulerUtils.disableScheduledTasks(this);
+        PlayerDataStore.closeAll(this);
+        ConfigUtils.disableConfigBindings(this);
+        super.onDisable();
     }
 }
@@ -0,0 +1,97 @@
+package com.ivan1pl.spigot.storage;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Binary codec of player data. Implementations are generated at compile time for classes annotated with
+ * {@link com.ivan1pl.spigot.annotations.PlayerData}.
+ * @param <T> player data class
+ */
+public interface PlayerDataCodec<T> {
+    /**
+     * Suffix appended to the binary name of the data class to obtain the name of the generated codec.
+     */
+    String SUFFIX = "$$Codec";
+
+    /**
+     * Create data of a new player.
+     * @return new data object
+     */
+    T create();
+
+    /**
+     * Serialize data.
+     * @param out output
+     * @param value data object
+     * @throws IOException if the data could not be written
+     */
+    void write(DataOutput out, T value) throws IOException;
+
+    /**
+     * Deserialize data.
+     * @param in input
+     * @return data object
+     * @throws IOException if the data could not be read
+     */
+    T read(DataInput in) throws IOException;
+
+    /**
+     * <p>Serialize a string field, used by generated codecs.</p>
+     *
+     * <p>The string is preceded by a marker byte: {@code 0} for {@code null}, {@code 1} for a string written using
+     * {@link DataOutput#writeUTF(String)} and {@code 2} for a longer string written as its length and UTF-8 bytes.</p>
+     * @param out output
+     * @param value string, may be {@code null}
+     * @throws IOException if the string could not be written
+     */
+    static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeByte(0);
+            return;
+        }
+        //writeUTF is limited to 65535 bytes of modified UTF-8
+        int utfLength = 0;
+        for (int i = 0; i < value.length() && utfLength <= 65535; ++i) {
+            char c = value.charAt(i);
+            utfLength += c >= 0x0001 && c <= 0x007F ? 1 : c <= 0x07FF ? 2 : 3;
+        }
+        if (utfLength <= 65535) {
+            out.writeByte(1);
+            out.writeUTF(value);
+        } else {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeByte(2);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Deserialize a string field written by {@link #writeString(DataOutput, String)}, used by generated codecs.
+     * @param in input
+     * @return string, may be {@code null}
+     * @throws IOException if the string could not be read
+     */
+    static String readString(DataInput in) throws IOException {
+        byte marker = in.readByte();
+        switch (marker) {
+            case 0:
+                return null;
+            case 1:
+                return in.readUTF();
+            case 2:
+                int length = in.readInt();
+                if (length < 0) {
+                    throw new IOException("Invalid string length: " + length);
+                }
+                byte[] bytes = new byte[length];
+                in.readFully(bytes);
+                return new String(bytes, StandardCharsets.UTF_8);
+            default:
+                throw new IOException("Invalid string marker: " + marker);
+        }
+    }
+}
@@ -0,0 +1,352 @@
+package com.ivan1pl.spigot.storage;
+
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * <p>Persistent store of per-player data, using classes annotated with
+ * {@link com.ivan1pl.spigot.annotations.PlayerData}.</p>
+ *
+ * <p>Data of players who are logging in is loaded asynchronously before they join and kept in memory until shortly
+ * after they quit. Modified data (see {@link #markDirty(UUID)}) is serialized on the server thread every few seconds
+ * and written to an append-only file by a background thread, so the server thread never waits for disk I/O in the
+ * common case.</p>
+ *
+ * <p>Data objects must only be modified from the server thread. Serialized data of a single player is limited to
+ * 1 MiB, larger data is not saved (an error is logged). Stores opened by plugins extending
+ * {@link com.ivan1pl.spigot.base.BasePlugin} are closed automatically when the plugin is disabled.</p>
+ */
+public class PlayerDataStore<T> implements Listener, Closeable {
+    private static final String DIRECTORY = "playerdata";
+    private static final String EXTENSION = ".dat";
+    private static final long FLUSH_PERIOD = 100;
+    private static final long EVICTION_DELAY = TimeUnit.SECONDS.toMillis(30);
+    private static final long CLOSE_TIMEOUT = 30;
+
+    private static final Map<JavaPlugin, List<PlayerDataStore<?>>> stores = new WeakHashMap<>();
+
+    private final JavaPlugin plugin;
+    private final Class<T> type;
+    private final PlayerDataCodec<T> codec;
+    private final RecordLog log;
+    private final Map<UUID, Entry<T>> cache = new ConcurrentHashMap<>();
+    private final Map<UUID, byte[]> pending = new ConcurrentHashMap<>();
+    private final ExecutorService writer;
+    private final BukkitTask flushTask;
+    private volatile boolean closed;
+
+    private PlayerDataStore(JavaPlugin plugin, Class<T> type, PlayerDataCodec<T> codec, RecordLog log) {
+        this.plugin = plugin;
+        this.type = type;
+        this.codec = codec;
+        this.log = log;
+        this.writer = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "spigot-utils player data writer (" + plugin.getName() + ")");
+            thread.setDaemon(true);
+            return thread;
+        });
+        plugin.getServer().getPluginManager().registerEvent(AsyncPlayerPreLoginEvent.class, this,
+                EventPriority.MONITOR, (l, e) -> onPreLogin((AsyncPlayerPreLoginEvent) e), plugin, true);
+        plugin.getServer().getPluginManager().registerEvent(PlayerJoinEvent.class, this,
+                EventPriority.LOWEST, (l, e) -> onJoin((PlayerJoinEvent) e), plugin, false);
+        plugin.getServer().getPluginManager().registerEvent(PlayerQuitEvent.class, this,
+                EventPriority.MONITOR, (l, e) -> onQuit((PlayerQuitEvent) e), plugin, false);
+        this.flushTask = plugin.getServer().getScheduler().runTaskTimer(plugin, this::flush, FLUSH_PERIOD,
+                FLUSH_PERIOD);
+    }
+
+    /**
+     * Open the store of the given data class. Data is saved in the {@code playerdata} directory in the plugin data
+     * folder. Each data class can only have one open store per plugin.
+     * @param plugin plugin instance
+     * @param type class annotated with {@link com.ivan1pl.spigot.annotations.PlayerData}
+     * @param <T> player data class
+     * @return player data store
+     * @throws IOException if the data file could not be opened
+     * @throws IllegalArgumentException if no codec was generated for the class
+     * @throws IllegalStateException if the store of this class is already open
+     */
+    public static <T> PlayerDataStore<T> open(JavaPlugin plugin, Class<T> type) throws IOException {
+        PlayerDataCodec<T> codec = getCodec(type);
+        Path directory = plugin.getDataFolder().toPath().resolve(DIRECTORY);
+        Files.createDirectories(directory);
+        //the check and the registration must be atomic, two logs must never append to the same file
+        synchronized (stores) {
+            List<PlayerDataStore<?>> pluginStores = stores.computeIfAbsent(plugin, p -> new ArrayList<>());
+            pluginStores.removeIf(s -> s.closed);
+            for (PlayerDataStore<?> store : pluginStores) {
+                if (store.type.getName().equals(type.getName())) {
+                    throw new IllegalStateException("Player data store of " + type.getName() + " is already open.");
+                }
+            }
+            PlayerDataStore<T> store = new PlayerDataStore<>(plugin, type, codec,
+                    new RecordLog(directory.resolve(type.getName() + EXTENSION), plugin.getLogger()));
+            pluginStores.add(store);
+            return store;
+        }
+    }
+
+    /**
+     * Close all stores opened by the plugin.
+     * @param plugin plugin instance
+     */
+    public static void closeAll(JavaPlugin plugin) {
+        List<PlayerDataStore<?>> pluginStores;
+        synchronized (stores) {
+            pluginStores = stores.remove(plugin);
+        }
+        if (pluginStores != null) {
+            for (PlayerDataStore<?> store : pluginStores) {
+                store.close();
+            }
+        }
+    }
+
+    /**
+     * Get data of the player. Data of online players is normally already cached; otherwise it is read from disk on
+     * the calling thread.
+     * @param uuid player UUID
+     * @return player data, new object if the player has no data yet
+     * @throws IllegalStateException if the store is closed or the data could not be read
+     */
+    public T get(UUID uuid) {
+        return getEntry(uuid).value;
+    }
+
+    /**
+     * Get data of the player.
+     * @param player player
+     * @return player data, new object if the player has no data yet
+     * @throws IllegalStateException if the store is closed or the data could not be read
+     */
+    public T get(Player player) {
+        return get(player.getUniqueId());
+    }
+
+    /**
+     * Get data of the player only if it is cached.
+     * @param uuid player UUID
+     * @return player data, {@code null} if not cached
+     */
+    public T getIfLoaded(UUID uuid) {
+        Entry<T> entry = cache.get(uuid);
+        return entry == null ? null : entry.value;
+    }
+
+    /**
+     * Mark data of the player as modified, so that it is saved with the next batch. Does nothing if the data is not
+     * cached.
+     * @param uuid player UUID
+     */
+    public void markDirty(UUID uuid) {
+        Entry<T> entry = cache.get(uuid);
+        if (entry != null) {
+            entry.dirty = true;
+        }
+    }
+
+    /**
+     * Mark data of the player as modified, so that it is saved with the next batch.
+     * @param player player
+     */
+    public void markDirty(Player player) {
+        markDirty(player.getUniqueId());
+    }
+
+    /**
+     * Get the number of cached players.
+     * @return player count
+     */
+    public int size() {
+        return cache.size();
+    }
+
+    /**
+     * Save all modified data, wait for the background writer to finish and close the data file.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        flushTask.cancel();
+        HandlerList.unregisterAll(this);
+        for (Map.Entry<UUID, Entry<T>> entry : cache.entrySet()) {
+            if (entry.getValue().dirty) {
+                encode(entry.getKey(), entry.getValue());
+            }
+        }
+        writer.execute(this::write);
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(CLOSE_TIMEOUT, TimeUnit.SECONDS)) {
+                plugin.getLogger().severe("Timed out waiting for player data to be saved.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!pending.isEmpty()) {
+            plugin.getLogger().severe(String.format("Failed to save data of %d players.", pending.size()));
+        }
+        try {
+            log.close();
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to close player data file.", e);
+        }
+        cache.clear();
+    }
+
+    private void onPreLogin(AsyncPlayerPreLoginEvent event) {
+        if (closed || event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED) {
+            return;
+        }
+        try {
+            // if the player never joins, the data is evicted like after quitting
+            load(event.getUniqueId()).releasedAt = System.currentTimeMillis();
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.SEVERE, "Failed to load data of player " + event.getName() + ".", e);
+        }
+    }
+
+    private void onJoin(PlayerJoinEvent event) {
+        if (!closed) {
+            getEntry(event.getPlayer().getUniqueId()).releasedAt = 0;
+        }
+    }
+
+    private void onQuit(PlayerQuitEvent event) {
+        Entry<T> entry = cache.get(event.getPlayer().getUniqueId());
+        if (entry != null) {
+            entry.releasedAt = System.currentTimeMillis();
+        }
+    }
+
+    private Entry<T> getEntry(UUID uuid) {
+        if (closed) {
+            throw new IllegalStateException("Player data store is closed.");
+        }
+        Entry<T> entry = cache.get(uuid);
+        if (entry == null) {
+            try {
+                entry = load(uuid);
+                entry.releasedAt = System.currentTimeMillis();
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to load data of player " + uuid + ".", e);
+            }
+        }
+        return entry;
+    }
+
+    private Entry<T> load(UUID uuid) throws IOException {
+        Entry<T> entry = cache.get(uuid);
+        if (entry != null) {
+            return entry;
+        }
+        // data which was already serialized but not written yet is newer than the data on disk
+        byte[] data = pending.get(uuid);
+        if (data == null) {
+            data = log.read(uuid);
+        }
+        T value = data == null ? codec.create() : codec.read(new DataInputStream(new ByteArrayInputStream(data)));
+        entry = cache.putIfAbsent(uuid, new Entry<>(value));
+        return entry == null ? cache.get(uuid) : entry;
+    }
+
+    private void flush() {
+        long now = System.currentTimeMillis();
+        boolean modified = false;
+        for (Iterator<Map.Entry<UUID, Entry<T>>> it = cache.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<UUID, Entry<T>> entry = it.next();
+            Entry<T> value = entry.getValue();
+            if (value.dirty) {
+                encode(entry.getKey(), value);
+                modified = true;
+            } else if (value.releasedAt > 0 && now - value.releasedAt >= EVICTION_DELAY) {
+                it.remove();
+            }
+        }
+        if (modified || !pending.isEmpty()) {
+            writer.execute(this::write);
+        }
+    }
+
+    private void encode(UUID uuid, Entry<T> entry) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            codec.write(new DataOutputStream(bytes), entry.value);
+            if (bytes.size() > RecordLog.MAX_RECORD_SIZE) {
+                //the record would be rejected by the log together with the whole batch, the previous data is kept
+                entry.dirty = false;
+                plugin.getLogger().severe(String.format("Data of player %s is too large to save (%d bytes).",
+                        uuid, bytes.size()));
+                return;
+            }
+            pending.put(uuid, bytes.toByteArray());
+            entry.dirty = false;
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.SEVERE, "Failed to serialize data of player " + uuid + ".", e);
+        }
+    }
+
+    private void write() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<UUID, byte[]> batch = new HashMap<>(pending);
+        try {
+            log.append(batch);
+        } catch (IOException e) {
+            // records stay pending and are retried with the next batch
+            plugin.getLogger().log(Level.SEVERE, "Failed to save player data.", e);
+            return;
+        }
+        for (Map.Entry<UUID, byte[]> entry : batch.entrySet()) {
+            pending.remove(entry.getKey(), entry.getValue());
+        }
+        if (log.needsCompaction()) {
+            try {
+                log.compact();
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.SEVERE, "Failed to compact player data file.", e);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> PlayerDataCodec<T> getCodec(Class<T> type) {
+        try {
+            return (PlayerDataCodec<T>) Class.forName(type.getName() + PlayerDataCodec.SUFFIX, true,
+                    type.getClassLoader()).newInstance();
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            throw new IllegalArgumentException("No player data codec generated for " + type.getName() + ".", e);
+        }
+    }
+
+    private static final class Entry<T> {
+        final T value;
+        volatile boolean dirty;
+        volatile long releasedAt;
+
+        Entry(T value) {
+            this.value = value;
+        }
+    }
+}
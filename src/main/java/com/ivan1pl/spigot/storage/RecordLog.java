@@ -0,0 +1,257 @@
+package com.ivan1pl.spigot.storage;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * <p>Append-only file mapping player UUIDs to binary records. The latest record of each player is located using an
+ * in-memory index built when the file is opened.</p>
+ *
+ * <p>Each record consists of the payload length, the UUID, the payload and a CRC32 checksum of the UUID and payload.
+ * When the file is opened, it is truncated at the first incomplete or corrupted record (e.g. one which was being
+ * written when the server crashed). Compaction copies live records to a temporary file which then atomically
+ * replaces the log, so the log is never left in a partially compacted state.</p>
+ */
+final class RecordLog implements Closeable {
+    private static final int MAGIC = 0x53555044;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final int RECORD_OVERHEAD = 4 + 16 + 4;
+    static final int MAX_RECORD_SIZE = 1024 * 1024;
+    private static final long COMPACTION_MIN_SIZE = 1024 * 1024;
+    private static final String COMPACTION_SUFFIX = ".compact";
+
+    private final Path path;
+    private final Logger logger;
+    private Map<UUID, Location> index = new HashMap<>();
+    private FileChannel channel;
+    private long size;
+    private long liveBytes;
+
+    RecordLog(Path path, Logger logger) throws IOException {
+        this.path = path;
+        this.logger = logger;
+        Files.deleteIfExists(getCompactionPath());
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            load();
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Read the latest record of the player.
+     * @param uuid player UUID
+     * @return record payload, {@code null} if there is no record
+     * @throws IOException if the record could not be read
+     */
+    synchronized byte[] read(UUID uuid) throws IOException {
+        Location location = index.get(uuid);
+        if (location == null) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(location.length);
+        long position = location.position + RECORD_OVERHEAD - 4;
+        while (buffer.hasRemaining()) {
+            int n = channel.read(buffer, position + buffer.position());
+            if (n < 0) {
+                throw new EOFException("Unexpected end of file " + path + ".");
+            }
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Append records to the end of the file and force them to disk. The index is updated only after the records were
+     * written successfully.
+     * @param records payloads by player UUID
+     * @throws IOException if the records could not be written
+     */
+    synchronized void append(Map<UUID, byte[]> records) throws IOException {
+        int total = 0;
+        for (byte[] payload : records.values()) {
+            if (payload.length > MAX_RECORD_SIZE) {
+                throw new IOException(String.format("Record size %d exceeds the limit of %d bytes.",
+                        payload.length, MAX_RECORD_SIZE));
+            }
+            total += RECORD_OVERHEAD + payload.length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(total);
+        Map<UUID, Location> locations = new HashMap<>();
+        for (Map.Entry<UUID, byte[]> record : records.entrySet()) {
+            UUID uuid = record.getKey();
+            byte[] payload = record.getValue();
+            locations.put(uuid, new Location(size + buffer.position(), payload.length));
+            buffer.putInt(payload.length);
+            buffer.putLong(uuid.getMostSignificantBits());
+            buffer.putLong(uuid.getLeastSignificantBits());
+            buffer.put(payload);
+            buffer.putInt(checksum(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), payload));
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, size + buffer.position());
+        }
+        channel.force(false);
+        size += total;
+        for (Map.Entry<UUID, Location> location : locations.entrySet()) {
+            addToIndex(location.getKey(), location.getValue());
+        }
+    }
+
+    /**
+     * Check whether most of the file is occupied by outdated records.
+     * @return {@code true} if the file should be compacted
+     */
+    synchronized boolean needsCompaction() {
+        return size > COMPACTION_MIN_SIZE && size > 2 * (HEADER_SIZE + liveBytes);
+    }
+
+    /**
+     * Rewrite the file keeping only the latest record of each player.
+     * @throws IOException if the file could not be compacted, the original file is kept in this case
+     */
+    synchronized void compact() throws IOException {
+        Path compactionPath = getCompactionPath();
+        Map<UUID, Location> newIndex = new HashMap<>();
+        long newSize;
+        try (FileChannel out = FileChannel.open(compactionPath, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeHeader(out);
+            out.position(HEADER_SIZE);
+            newSize = HEADER_SIZE;
+            for (Map.Entry<UUID, Location> entry : index.entrySet()) {
+                Location location = entry.getValue();
+                long recordSize = RECORD_OVERHEAD + location.length;
+                long transferred = 0;
+                while (transferred < recordSize) {
+                    transferred += channel.transferTo(location.position + transferred, recordSize - transferred,
+                            out);
+                }
+                newIndex.put(entry.getKey(), new Location(newSize, location.length));
+                newSize += recordSize;
+            }
+            out.force(true);
+        } catch (IOException e) {
+            Files.deleteIfExists(compactionPath);
+            throw e;
+        }
+        channel.close();
+        try {
+            Files.move(compactionPath, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+        index = newIndex;
+        size = newSize;
+    }
+
+    /**
+     * Get the number of players with a record.
+     * @return player count
+     */
+    synchronized int size() {
+        return index.size();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    private void load() throws IOException {
+        long fileSize = channel.size();
+        if (fileSize < HEADER_SIZE) {
+            channel.truncate(0);
+            writeHeader(channel);
+            channel.force(true);
+            size = HEADER_SIZE;
+            return;
+        }
+        // the stream is not closed, that would close the channel too
+        DataInputStream in = new DataInputStream(new BufferedInputStream(
+                Channels.newInputStream(channel.position(0))));
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            throw new IOException("Unsupported player data file: " + path + ".");
+        }
+        long position = HEADER_SIZE;
+        while (position + RECORD_OVERHEAD <= fileSize) {
+            int length = in.readInt();
+            if (length < 0 || length > MAX_RECORD_SIZE || position + RECORD_OVERHEAD + length > fileSize) {
+                break;
+            }
+            long msb = in.readLong();
+            long lsb = in.readLong();
+            byte[] payload = new byte[length];
+            in.readFully(payload);
+            if (in.readInt() != checksum(msb, lsb, payload)) {
+                break;
+            }
+            addToIndex(new UUID(msb, lsb), new Location(position, length));
+            position += RECORD_OVERHEAD + length;
+        }
+        if (position < fileSize) {
+            logger.warning(String.format("Discarding %d bytes of incomplete or corrupted data at the end of %s.",
+                    fileSize - position, path));
+            channel.truncate(position);
+            channel.force(true);
+        }
+        size = position;
+    }
+
+    private void addToIndex(UUID uuid, Location location) {
+        Location previous = index.put(uuid, location);
+        if (previous != null) {
+            liveBytes -= RECORD_OVERHEAD + previous.length;
+        }
+        liveBytes += RECORD_OVERHEAD + location.length;
+    }
+
+    private Path getCompactionPath() {
+        return path.resolveSibling(path.getFileName() + COMPACTION_SUFFIX);
+    }
+
+    private static void writeHeader(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC);
+        header.putInt(VERSION);
+        header.flip();
+        while (header.hasRemaining()) {
+            channel.write(header, header.position());
+        }
+    }
+
+    private static int checksum(long msb, long lsb, byte[] payload) {
+        CRC32 crc = new CRC32();
+        ByteBuffer uuid = ByteBuffer.allocate(16);
+        uuid.putLong(msb);
+        uuid.putLong(lsb);
+        crc.update(uuid.array());
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private static final class Location {
+        final long position;
+        final int length;
+
+        Location(long position, int length) {
+            this.position = position;
+            this.length = length;
+        }
+    }
+}
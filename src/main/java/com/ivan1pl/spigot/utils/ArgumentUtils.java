@@ -0,0 +1,148 @@
+package com.ivan1pl.spigot.utils;
+
+import com.ivan1pl.spigot.annotations.CommandOption;
+import com.ivan1pl.spigot.annotations.CommandParameter;
+import net.sourceforge.argparse4j.ArgumentParsers;
+import net.sourceforge.argparse4j.helper.HelpScreenException;
+import net.sourceforge.argparse4j.impl.Arguments;
+import net.sourceforge.argparse4j.inf.Argument;
+import net.sourceforge.argparse4j.inf.ArgumentAction;
+import net.sourceforge.argparse4j.inf.ArgumentParser;
+import net.sourceforge.argparse4j.inf.ArgumentParserException;
+
+import java.lang.annotation.Annotation;
+import java.util.Map;
+
+/**
+ * <p>Utility class building argument parsers of commands, shared by the command executor and the annotation
+ * processor.</p>
+ *
+ * <p>This class must not depend on the Bukkit API, which is not available to the annotation processor.</p>
+ */
+final class ArgumentUtils {
+
+    private ArgumentUtils() {}
+
+    /**
+     * Build argument parser of a command.
+     * @param command command name
+     * @param description command description
+     * @param paramAnnotations annotations of the method parameters
+     * @param paramTypes types of the method parameters, {@code null} if not known (at compile time)
+     * @param paramFlags whether each parameter is a boolean flag
+     * @return argument parser
+     */
+    static ArgumentParser getArgumentParser(String command, String description, Annotation[][] paramAnnotations,
+                                            Class<?>[] paramTypes, Boolean[] paramFlags) {
+        ArgumentParser parser = ArgumentParsers.newFor("/" + command).addHelp(false).build()
+                .description(description);
+        parser.addArgument("-h", "--help")
+                .action(new HelpArgumentAction())
+                .help("show this help message and exit")
+                .setDefault(Arguments.SUPPRESS);
+        for (int i = 0; i < paramAnnotations.length; ++i) {
+            Class<?> paramType = paramTypes != null && paramTypes.length > i ? paramTypes[i] : null;
+            //parameters of other types receive the command sender, they are validated by the caller
+            if (paramType == null || isSupportedType(paramType)) {
+                Annotation[] annotations = paramAnnotations[i];
+                for (Annotation annotation : annotations) {
+                    if (annotation instanceof CommandOption) {
+                        CommandOption commandOption = (CommandOption) annotation;
+                        String longName = commandOption.name().isEmpty() ?
+                                null : "--" + commandOption.name();
+                        String shortName = Character.isLetterOrDigit(commandOption.shortName()) ?
+                                "-" + commandOption.shortName() : null;
+                        boolean hasArg = !paramFlags[i];
+                        String[] names;
+                        if (longName != null && shortName != null) {
+                            names = new String[] { shortName, longName };
+                        } else if (longName != null) {
+                            names = new String[] { longName };
+                        } else if (shortName != null) {
+                            names = new String[] { shortName };
+                        } else {
+                            throw new IllegalStateException("Option name not specified.");
+                        }
+                        Argument argument = parser.addArgument(names).help(commandOption.description());
+                        if (!hasArg) {
+                            argument.action(Arguments.storeTrue());
+                        } else if (paramType != null) {
+                            argument.type(paramType);
+                            if (!commandOption.defaultValue().isEmpty()) {
+                                argument.setDefault(convertDefaultValue(paramType, commandOption.defaultValue()));
+                            }
+                        } else {
+                            if (!commandOption.defaultValue().isEmpty()) {
+                                argument.setDefault(commandOption.defaultValue());
+                            }
+                        }
+                    } else if (annotation instanceof CommandParameter) {
+                        CommandParameter commandParameter = (CommandParameter) annotation;
+                        Argument argument = parser.addArgument(commandParameter.name())
+                                .help(commandParameter.description());
+                        if (commandParameter.optional()) {
+                            argument.nargs("?");
+                        }
+                        if (paramType != null) {
+                            argument.type(paramType);
+                        }
+                        if (!commandParameter.defaultValue().isEmpty() && paramType != null) {
+                            argument.setDefault(convertDefaultValue(paramType, commandParameter.defaultValue()));
+                        }
+                    }
+                }
+            }
+        }
+
+        return parser;
+    }
+
+    /**
+     * Convert default value declared in annotation to the parameter type.
+     * @param targetClass parameter type
+     * @param value default value
+     * @return converted value
+     * @throws IllegalArgumentException if the value cannot be converted
+     */
+    static Object convertDefaultValue(Class<?> targetClass, String value) {
+        if (targetClass == boolean.class || targetClass == Boolean.class) {
+            if (!"true".equalsIgnoreCase(value) && !"false".equalsIgnoreCase(value)) {
+                throw new IllegalArgumentException("Invalid boolean value: " + value);
+            }
+            return Boolean.valueOf(value);
+        } else if (targetClass == int.class || targetClass == Integer.class) {
+            return Integer.valueOf(value);
+        } else if (targetClass == long.class || targetClass == Long.class) {
+            return Long.valueOf(value);
+        } else if (targetClass == String.class) {
+            return value;
+        } else {
+            throw new IllegalArgumentException(String.format("The type %s is not supported.",
+                    targetClass.getCanonicalName()));
+        }
+    }
+
+    static boolean isSupportedType(Class<?> type) {
+        return type == boolean.class || type == Boolean.class || type == int.class || type == Integer.class ||
+                type == long.class || type == Long.class || type == String.class;
+    }
+
+    private static class HelpArgumentAction implements ArgumentAction {
+
+        @Override
+        public void run(ArgumentParser parser, Argument arg,
+                        Map<String, Object> attrs, String flag, Object value)
+                throws ArgumentParserException {
+            throw new HelpScreenException(parser);
+        }
+
+        @Override
+        public boolean consumeArgument() {
+            return false;
+        }
+
+        @Override
+        public void onAttach(Argument arg) {
+        }
+    }
+}
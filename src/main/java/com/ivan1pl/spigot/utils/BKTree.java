@@ -0,0 +1,156 @@
+package com.ivan1pl.spigot.utils;
+
+import java.util.*;
+
+/**
+ * BK-tree of words indexed by Levenshtein distance, used for "did you mean" suggestions and tab completion.
+ */
+class BKTree {
+    private Node root;
+    private int size;
+
+    /**
+     * Add word to the tree (does nothing if the word is already present).
+     * @param word word
+     */
+    void add(String word) {
+        if (root == null) {
+            root = new Node(word);
+            ++size;
+            return;
+        }
+        Node node = root;
+        while (true) {
+            int distance = distance(node.word, word, Integer.MAX_VALUE);
+            if (distance == 0) {
+                return;
+            }
+            Node child = node.children.get(distance);
+            if (child == null) {
+                node.children.put(distance, new Node(word));
+                node.maxChildDistance = Math.max(node.maxChildDistance, distance);
+                ++size;
+                return;
+            }
+            node = child;
+        }
+    }
+
+    /**
+     * Get the number of words in the tree.
+     * @return word count
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Find words within given distance from the query, closest first.
+     * @param query searched word
+     * @param maxDistance maximum Levenshtein distance
+     * @return matching words
+     */
+    List<String> search(String query, int maxDistance) {
+        List<Match> matches = new ArrayList<>();
+        if (root != null) {
+            Deque<Node> queue = new ArrayDeque<>();
+            queue.add(root);
+            while (!queue.isEmpty()) {
+                Node node = queue.poll();
+                //beyond this limit the word does not match and no child can be within maxDistance either, so the
+                //exact distance is not needed
+                int distance = distance(node.word, query, node.maxChildDistance + maxDistance);
+                if (distance <= maxDistance) {
+                    matches.add(new Match(node.word, distance));
+                }
+                for (Map.Entry<Integer, Node> child : node.children.entrySet()) {
+                    if (Math.abs(child.getKey() - distance) <= maxDistance) {
+                        queue.add(child.getValue());
+                    }
+                }
+            }
+        }
+        matches.sort(Comparator.comparingInt((Match m) -> m.distance).thenComparing(m -> m.word));
+        List<String> result = new ArrayList<>(matches.size());
+        for (Match match : matches) {
+            result.add(match.word);
+        }
+        return result;
+    }
+
+    /**
+     * Find words starting with given prefix, in alphabetical order.
+     * @param prefix word prefix
+     * @return matching words
+     */
+    List<String> complete(String prefix) {
+        List<String> result = new ArrayList<>();
+        if (root != null) {
+            Deque<Node> queue = new ArrayDeque<>();
+            queue.add(root);
+            while (!queue.isEmpty()) {
+                Node node = queue.poll();
+                if (node.word.startsWith(prefix)) {
+                    result.add(node.word);
+                }
+                queue.addAll(node.children.values());
+            }
+        }
+        Collections.sort(result);
+        return result;
+    }
+
+    /**
+     * Compute Levenshtein distance between two words.
+     * @param a first word
+     * @param b second word
+     * @param limit distance above which computation may stop early (the result is then any value above the limit)
+     * @return edit distance
+     */
+    static int distance(String a, String b, int limit) {
+        if (Math.abs(a.length() - b.length()) > limit) {
+            return limit + 1;
+        }
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); ++j) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); ++i) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); ++j) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > limit) {
+                return limit + 1;
+            }
+            int[] tmp = previous;
+            previous = current;
+            current = tmp;
+        }
+        return previous[b.length()];
+    }
+
+    private static class Node {
+        final String word;
+        final Map<Integer, Node> children = new HashMap<>(4);
+        int maxChildDistance;
+
+        Node(String word) {
+            this.word = word;
+        }
+    }
+
+    private static class Match {
+        final String word;
+        final int distance;
+
+        Match(String word, int distance) {
+            this.word = word;
+            this.distance = distance;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.ivan1pl.spigot.utils;
+
+import com.ivan1pl.spigot.annotations.Coalesce;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Entity;
+
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Coalescer of duplicate invocations of commands annotated with {@link Coalesce}.
+ *
+ * Use {@link CommandUtils#getCoalescer(org.bukkit.plugin.java.JavaPlugin)} to obtain the coalescer of a plugin.
+ */
+public class CommandCoalescer {
+    private static final int PURGE_INTERVAL = 256;
+
+    private volatile Map<Method, Long> windows = Collections.emptyMap();
+    private final Map<Key, Execution> executions = new HashMap<>();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private int operations;
+
+    CommandCoalescer(Set<Method> methods) {
+        update(methods);
+    }
+
+    /**
+     * Get the number of invocations coalesced into an invocation which was still executing.
+     * @return coalesced invocation count
+     */
+    public long getCoalesced() {
+        return coalesced.get();
+    }
+
+    /**
+     * Get the number of invocations dropped because an identical invocation finished shortly before.
+     * @return dropped invocation count
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Replace the set of coalesced methods.
+     * @param methods all command methods
+     */
+    void update(Set<Method> methods) {
+        Map<Method, Long> newWindows = new HashMap<>();
+        for (Method m : methods) {
+            Coalesce coalesce = m.getDeclaredAnnotation(Coalesce.class);
+            if (coalesce != null) {
+                newWindows.put(m, TimeUnit.MILLISECONDS.toNanos(Math.max(0, coalesce.window())));
+            }
+        }
+        windows = newWindows;
+    }
+
+    boolean isCoalescing(Method m) {
+        return windows.containsKey(m);
+    }
+
+    /**
+     * Register start of an invocation.
+     * @return key which must be passed to {@link #end(Key)} when the invocation finishes, {@code null} if the invocation
+     * is a duplicate and should not be executed
+     */
+    synchronized Key begin(Method m, CommandSender sender, String command, String[] args) {
+        long now = System.nanoTime();
+        if (++operations % PURGE_INTERVAL == 0) {
+            purge(now);
+        }
+        Key key = new Key(sender, command, args);
+        Execution execution = executions.get(key);
+        if (execution != null) {
+            if (execution.running) {
+                coalesced.incrementAndGet();
+                return null;
+            }
+            if (now - execution.finishedAt < execution.window) {
+                dropped.incrementAndGet();
+                return null;
+            }
+        }
+        executions.put(key, new Execution(windows.getOrDefault(m, 0L)));
+        return key;
+    }
+
+    synchronized void end(Key key) {
+        Execution execution = executions.get(key);
+        if (execution == null) {
+            return;
+        }
+        if (execution.window == 0) {
+            executions.remove(key);
+        } else {
+            execution.running = false;
+            execution.finishedAt = System.nanoTime();
+        }
+    }
+
+    private void purge(long now) {
+        executions.values().removeIf(e -> !e.running && now - e.finishedAt >= e.window);
+    }
+
+    static final class Key {
+        private final Object sender;
+        private final String command;
+        private final String[] args;
+        private final int hash;
+
+        Key(CommandSender sender, String command, String[] args) {
+            //players and other entities are identified by UUID, so that the key does not keep them reachable
+            this.sender = sender instanceof Entity ? ((Entity) sender).getUniqueId() : sender.getName();
+            this.command = command;
+            this.args = args.clone();
+            this.hash = 31 * (31 * this.sender.hashCode() + command.hashCode()) + Arrays.hashCode(args);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return hash == key.hash && sender.equals(key.sender) && command.equals(key.command) &&
+                    Arrays.equals(args, key.args);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class Execution {
+        final long window;
+        boolean running = true;
+        long finishedAt;
+
+        Execution(long window) {
+            this.window = window;
+        }
+    }
+}
@@ -1,6 +1,5 @@
 package com.ivan1pl.spigot.utils;
 
-import com.google.common.collect.Maps;
 import com.ivan1pl.spigot.annotations.Command;
 import com.ivan1pl.spigot.annotations.CommandOption;
 import com.ivan1pl.spigot.annotations.CommandParameter;
@@ -9,81 +8,416 @@ import net.sourceforge.argparse4j.inf.ArgumentParser;
 import net.sourceforge.argparse4j.inf.ArgumentParserException;
 import net.sourceforge.argparse4j.inf.Namespace;
 import org.bukkit.command.CommandSender;
+import org.bukkit.command.TabExecutor;
 import org.bukkit.plugin.java.JavaPlugin;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.stream.Collectors;
 
-class CommandExecutor implements org.bukkit.command.CommandExecutor {
+class CommandExecutor implements TabExecutor {
+    private static final CommandInterceptor[] NO_INTERCEPTORS = new CommandInterceptor[0];
+
     private final JavaPlugin plugin;
-    private final Map<Method, List<CommandEntry>> commands;
-    private final Map<Class<?>, Object> methodOwners = new HashMap<>();
+    private final Map<Class<?>, Object> methodOwners = new ConcurrentHashMap<>();
+    private final CommandResultCache resultCache;
+    private final CommandCoalescer coalescer;
+    private final MessageCatalog messages;
+    private final List<CommandInterceptor> interceptors = new ArrayList<>();
+    private final Map<String, List<CommandInterceptor>> commandInterceptors = new HashMap<>();
+    private volatile DispatchTable table = DispatchTable.EMPTY;
+    private CommandRuntime runtime;
 
     CommandExecutor(JavaPlugin plugin, Map<Method, List<Command>> methodCommands) {
         this.plugin = plugin;
-        this.commands = Maps.transformEntries(methodCommands,
-                (m, l) -> m == null || l == null ? null : l.stream().map(
-                        c -> new CommandEntry(c.command(), getParserForCommand(m, c)))
-                        .collect(Collectors.toList()));
+        this.resultCache = new CommandResultCache(methodCommands);
+        this.coalescer = new CommandCoalescer(methodCommands.keySet());
+        this.messages = new MessageCatalog(plugin);
+        this.table = buildTable(DispatchTable.EMPTY, null, methodCommands, new HashSet<>());
     }
 
     @Override
     public boolean onCommand(CommandSender sender, org.bukkit.command.Command command, String label, String[] args) {
+        DispatchTable table = this.table;
+        CommandEntry[] entries = table.commands.get(command.getName());
+        if (entries == null) {
+            return false;
+        }
+        CommandInterceptor[] chain = table.interceptorChains.getOrDefault(command.getName(), NO_INTERCEPTORS);
+        if (chain.length == 0) {
+            return dispatch(sender, command.getName(), table, entries, args, null);
+        }
+        CommandInvocation invocation = new CommandInvocation(sender, command.getName(), label, args, chain);
+        boolean handled = true;
+        try {
+            try {
+                for (CommandInterceptor interceptor : chain) {
+                    if (!interceptor.beforeParse(invocation)) {
+                        return true;
+                    }
+                }
+            } catch (RuntimeException e) {
+                handleError(invocation, e);
+                plugin.getLogger().log(Level.SEVERE, "Failed to process command: " + command.getName(), e);
+                messages.send(sender, MessageCatalog.COMMAND_ERROR, command.getName());
+                return true;
+            }
+            handled = dispatch(sender, command.getName(), table, entries, args, invocation);
+            return handled;
+        } finally {
+            for (CommandInterceptor interceptor : chain) {
+                interceptor.afterDispatch(invocation, handled);
+            }
+        }
+    }
+
+    private boolean dispatch(CommandSender sender, String command, DispatchTable table, CommandEntry[] entries,
+                             String[] args, CommandInvocation invocation) {
         boolean displayingHelp = false;
-        for (Method m : commands.keySet()) {
-            for (CommandEntry commandEntry : commands.get(m)) {
-                if (commandEntry.name.equals(command.getName())) {
-                    try {
-                        Namespace namespace = commandEntry.argumentParser.parseArgs(args);
-                        Object thisObject = getMethodOwner(m);
-                        Object[] parameters = getMethodParameters(sender, m, namespace);
-                        m.invoke(thisObject, parameters);
+        boolean permitted = false;
+        CommandEntry denied = null;
+        for (CommandEntry commandEntry : entries) {
+            Method m = commandEntry.method;
+            if (!commandEntry.permission.isEmpty() && !sender.hasPermission(commandEntry.permission)) {
+                denied = commandEntry;
+                continue;
+            }
+            permitted = true;
+            try {
+                Namespace namespace = commandEntry.argumentParser.parseArgs(args);
+                Object thisObject = getMethodOwner(m);
+                Object[] parameters = getMethodParameters(sender, commandEntry.bindings, namespace);
+                CommandCoalescer.Key key = null;
+                if (coalescer.isCoalescing(m)) {
+                    key = coalescer.begin(m, sender, command, args);
+                    if (key == null) {
+                        //duplicate of a running or just finished invocation
+                        messages.send(sender, MessageCatalog.COMMAND_IGNORED, command);
                         return true;
-                    } catch (HelpScreenException e) {
-                        sender.sendMessage(commandEntry.argumentParser.formatHelp());
-                        //not returning true, might be other @Command entries to handle this - help should be displayed
-                        //for them as well.
-                        displayingHelp = true;
-                    } catch (ArgumentParserException e) {
-                        //nop, maybe other @Command entry for this command will handle this input.
-                    } catch (IllegalAccessException | InstantiationException e) {
-                        plugin.getLogger().log(Level.SEVERE,
-                                "Failed to instantiate declaring class for method: " + m.toString(), e);
-                    } catch (InvocationTargetException e) {
-                        plugin.getLogger().log(Level.SEVERE,
-                                "Failed to invoke method: " + m.toString(), e);
                     }
                 }
+                try {
+                    if (invocation == null) {
+                        invoke(sender, m, thisObject, parameters);
+                    } else {
+                        invocation.setTarget(m, parameters, () -> invoke(sender, m, thisObject, parameters));
+                        invokeIntercepted(invocation);
+                    }
+                } finally {
+                    if (key != null) {
+                        coalescer.end(key);
+                    }
+                }
+                return true;
+            } catch (HelpScreenException e) {
+                sender.sendMessage(messages.render(sender, MessageCatalog.HELP, command,
+                        commandEntry.argumentParser.formatHelp()));
+                //not returning true, might be other @Command entries to handle this - help should be displayed
+                //for them as well.
+                displayingHelp = true;
+            } catch (ArgumentParserException e) {
+                //nop, maybe other @Command entry for this command will handle this input.
+            } catch (IllegalAccessException | InstantiationException e) {
+                plugin.getLogger().log(Level.SEVERE,
+                        "Failed to instantiate declaring class for method: " + m.toString(), e);
+            } catch (InvocationTargetException e) {
+                plugin.getLogger().log(Level.SEVERE,
+                        "Failed to invoke method: " + m.toString(), e);
+                messages.send(sender, MessageCatalog.COMMAND_ERROR, command);
+                return true;
             }
         }
+        if (!permitted && denied != null) {
+            sendPermissionMessage(sender, denied);
+            return true;
+        }
+        if (!displayingHelp) {
+            suggestOptions(sender, table.optionIndexes.get(command), args);
+        }
         return displayingHelp;
     }
 
+    @Override
+    public List<String> onTabComplete(CommandSender sender, org.bukkit.command.Command command, String alias,
+                                      String[] args) {
+        BKTree optionIndex = table.optionIndexes.get(command.getName());
+        if (optionIndex == null || args.length == 0 || !args[args.length - 1].startsWith("-")) {
+            return null;
+        }
+        return optionIndex.complete(args[args.length - 1]);
+    }
+
+    private void suggestOptions(CommandSender sender, BKTree optionIndex, String[] args) {
+        if (optionIndex == null || optionIndex.size() == 0) {
+            return;
+        }
+        for (String arg : args) {
+            if (arg.length() < 2 || arg.charAt(0) != '-' || Character.isDigit(arg.charAt(1))) {
+                continue;
+            }
+            String option = arg.indexOf('=') > 0 ? arg.substring(0, arg.indexOf('=')) : arg;
+            if (!optionIndex.search(option, 0).isEmpty()) {
+                continue;
+            }
+            List<String> suggestions = optionIndex.search(option, option.length() <= 4 ? 1 : 2);
+            if (!suggestions.isEmpty()) {
+                messages.send(sender, MessageCatalog.UNKNOWN_OPTION, option, suggestions.get(0));
+            }
+        }
+    }
+
+    private void sendPermissionMessage(CommandSender sender, CommandEntry entry) {
+        if (entry.permissionMessage.isEmpty()) {
+            messages.send(sender, MessageCatalog.NO_PERMISSION, entry.permission);
+        } else if (messages.contains(sender, entry.permissionMessage)) {
+            messages.send(sender, entry.permissionMessage, entry.permission);
+        } else {
+            for (String line : entry.permissionMessage.replace("<permission>", entry.permission).split("\n")) {
+                sender.sendMessage(line);
+            }
+        }
+    }
+
+    private void invokeIntercepted(CommandInvocation invocation) throws InvocationTargetException {
+        try {
+            for (CommandInterceptor interceptor : invocation.getInterceptors()) {
+                interceptor.afterParse(invocation);
+            }
+            invocation.proceed();
+        } catch (Exception e) {
+            handleError(invocation, e instanceof InvocationTargetException ? e.getCause() : e);
+            throw e instanceof InvocationTargetException ? (InvocationTargetException) e :
+                    new InvocationTargetException(e);
+        }
+    }
+
+    private void handleError(CommandInvocation invocation, Throwable error) {
+        invocation.setError(error);
+        CommandInterceptor[] interceptors = invocation.getInterceptors();
+        for (int i = interceptors.length - 1; i >= 0; --i) {
+            interceptors[i].onError(invocation, error);
+        }
+    }
+
+    private void invoke(CommandSender sender, Method m, Object thisObject, Object[] parameters)
+            throws IllegalAccessException, InvocationTargetException {
+        if (resultCache.isCacheable(m)) {
+            invokeCached(sender, m, thisObject, parameters);
+        } else {
+            m.invoke(thisObject, parameters);
+        }
+    }
+
+    /**
+     * Rebuild the dispatch table. Entries of classes which are not replaced, and entries whose method and
+     * {@link Command} annotation did not change, are reused. Commands dispatched concurrently use either the old or
+     * the new table, together with the interceptor chains compiled for that table.
+     * @param replaced classes whose command methods are replaced, {@code null} if all command methods are replaced
+     * @param methodCommands new command methods of the replaced classes
+     * @return names of all commands in the new table
+     */
+    synchronized Set<String> reload(Set<Class<?>> replaced, Map<Method, List<Command>> methodCommands) {
+        Set<Method> rebuilt = new HashSet<>();
+        DispatchTable next = buildTable(table, replaced, methodCommands, rebuilt);
+        Map<Method, List<Command>> allMethodCommands = next.getMethodCommands();
+        resultCache.update(allMethodCommands, rebuilt);
+        coalescer.update(allMethodCommands.keySet());
+        Set<Class<?>> classes = new HashSet<>();
+        allMethodCommands.keySet().forEach(m -> classes.add(m.getDeclaringClass()));
+        methodOwners.keySet().retainAll(classes);
+        table = next.withInterceptorChains(compileInterceptorChains(next));
+        plugin.getLogger().info(String.format("Reloaded commands: %d of %d command entries rebuilt.",
+                next.count - next.reused, next.count));
+        return Collections.unmodifiableSet(next.commands.keySet());
+    }
+
+    JavaPlugin getPlugin() {
+        return plugin;
+    }
+
+    synchronized CommandRuntime getRuntime() {
+        return runtime;
+    }
+
+    synchronized void setRuntime(CommandRuntime runtime) {
+        this.runtime = runtime;
+    }
+
+    synchronized void recompileInterceptorChains() {
+        compileInterceptorChains();
+    }
+
+    synchronized void addInterceptor(CommandInterceptor interceptor) {
+        interceptors.add(interceptor);
+        compileInterceptorChains();
+    }
+
+    synchronized void addInterceptor(String command, CommandInterceptor interceptor) {
+        commandInterceptors.computeIfAbsent(command, k -> new ArrayList<>()).add(interceptor);
+        compileInterceptorChains();
+    }
+
+    synchronized void removeInterceptor(CommandInterceptor interceptor) {
+        interceptors.remove(interceptor);
+        commandInterceptors.values().forEach(l -> l.remove(interceptor));
+        compileInterceptorChains();
+    }
+
+    private void compileInterceptorChains() {
+        table = table.withInterceptorChains(compileInterceptorChains(table));
+    }
+
+    private Map<String, CommandInterceptor[]> compileInterceptorChains(DispatchTable table) {
+        Map<String, CommandInterceptor[]> chains = new HashMap<>();
+        CommandInterceptor[] runtimeInterceptors = runtime == null ? NO_INTERCEPTORS : runtime.getInterceptors();
+        for (String command : table.commands.keySet()) {
+            List<CommandInterceptor> chain = new ArrayList<>(Arrays.asList(runtimeInterceptors));
+            chain.addAll(interceptors);
+            chain.addAll(commandInterceptors.getOrDefault(command, Collections.emptyList()));
+            if (!chain.isEmpty()) {
+                chains.put(command, chain.toArray(NO_INTERCEPTORS));
+            }
+        }
+        return chains;
+    }
+
+    CommandResultCache getResultCache() {
+        return resultCache;
+    }
+
+    CommandCoalescer getCoalescer() {
+        return coalescer;
+    }
+
+    Set<String> getPermissions(String command) {
+        Set<String> permissions = new HashSet<>();
+        for (CommandEntry commandEntry : table.commands.getOrDefault(command, new CommandEntry[0])) {
+            permissions.add(commandEntry.permission);
+        }
+        return permissions;
+    }
+
+    MessageCatalog getMessageCatalog() {
+        return messages;
+    }
+
+    private void invokeCached(CommandSender sender, Method m, Object thisObject, Object[] parameters)
+            throws IllegalAccessException, InvocationTargetException {
+        List<Object> key = resultCache.getKey(m, sender, parameters);
+        if (resultCache.replay(m, key, sender)) {
+            return;
+        }
+        String[] messages = CommandResultCache.toMessages(m.invoke(thisObject, parameters));
+        if (messages.length > 0) {
+            sender.sendMessage(messages);
+        }
+        resultCache.store(m, key, messages);
+    }
+
     private Object getMethodOwner(Method m) throws IllegalAccessException, InstantiationException {
         Class<?> clazz = m.getDeclaringClass();
         Object result = methodOwners.get(clazz);
         if (result == null) {
             result = clazz.newInstance();
+            Object previous = methodOwners.putIfAbsent(clazz, result);
+            if (previous != null) {
+                result = previous;
+            }
         }
-        methodOwners.put(clazz, result);
         return result;
     }
 
-    private Object[] getMethodParameters(CommandSender sender, Method m, Namespace namespace) {
+    private DispatchTable buildTable(DispatchTable previous, Set<Class<?>> replaced,
+                                     Map<Method, List<Command>> methodCommands, Set<Method> rebuilt) {
+        //classes are compared by name, a replaced class may have been loaded by a different class loader
+        Set<String> replacedNames = replaced == null ? null :
+                replaced.stream().map(Class::getName).collect(Collectors.toSet());
+        Map<String, List<CommandEntry>> entries = new LinkedHashMap<>();
+        Map<Method, List<CommandEntry>> reusable = new HashMap<>();
+        int reused = 0;
+        for (CommandEntry[] commandEntries : previous.commands.values()) {
+            for (CommandEntry commandEntry : commandEntries) {
+                String className = commandEntry.method.getDeclaringClass().getName();
+                if (replacedNames == null || replacedNames.contains(className)) {
+                    reusable.computeIfAbsent(commandEntry.method, k -> new ArrayList<>()).add(commandEntry);
+                } else {
+                    entries.computeIfAbsent(commandEntry.name, k -> new ArrayList<>()).add(commandEntry);
+                    ++reused;
+                }
+            }
+        }
+        Set<String> changed = new HashSet<>();
+        for (Map.Entry<Method, List<Command>> entry : methodCommands.entrySet()) {
+            Method m = entry.getKey();
+            List<CommandEntry> candidates = reusable.getOrDefault(m, Collections.emptyList());
+            ParameterBinding[] bindings = null;
+            for (Command c : entry.getValue()) {
+                CommandEntry commandEntry = candidates.stream().filter(e -> e.command.equals(c)).findFirst()
+                        .orElse(null);
+                if (commandEntry == null) {
+                    if (bindings == null) {
+                        bindings = getParameterBindings(m);
+                    }
+                    commandEntry = new CommandEntry(c, m, bindings, getParserForCommand(m, c));
+                    changed.add(commandEntry.name);
+                    rebuilt.add(m);
+                } else {
+                    candidates.remove(commandEntry);
+                    ++reused;
+                }
+                entries.computeIfAbsent(commandEntry.name, k -> new ArrayList<>()).add(commandEntry);
+            }
+        }
+        //entries left in reusable were removed
+        reusable.values().forEach(l -> l.forEach(e -> changed.add(e.name)));
+
+        Map<String, CommandEntry[]> commands = new HashMap<>();
+        Map<String, BKTree> optionIndexes = new HashMap<>();
+        int count = 0;
+        for (Map.Entry<String, List<CommandEntry>> entry : entries.entrySet()) {
+            commands.put(entry.getKey(), entry.getValue().toArray(new CommandEntry[0]));
+            count += entry.getValue().size();
+            BKTree optionIndex = previous.optionIndexes.get(entry.getKey());
+            if (optionIndex == null || changed.contains(entry.getKey())) {
+                optionIndex = new BKTree();
+                for (CommandEntry commandEntry : entry.getValue()) {
+                    getOptionNames(commandEntry.method).forEach(optionIndex::add);
+                }
+            }
+            optionIndexes.put(entry.getKey(), optionIndex);
+        }
+        return new DispatchTable(commands, optionIndexes, Collections.emptyMap(), count, reused);
+    }
+
+    private static Object[] getMethodParameters(CommandSender sender, ParameterBinding[] bindings,
+                                                Namespace namespace) {
+        Object[] result = new Object[bindings.length];
+        for (int i = 0; i < bindings.length; ++i) {
+            ParameterBinding binding = bindings[i];
+            if (binding.sender) {
+                result[i] = sender;
+            } else {
+                Object value = binding.name == null ? null : namespace.get(binding.name);
+                result[i] = value == null ? binding.nullValue : value;
+            }
+        }
+        return result;
+    }
+
+    private static ParameterBinding[] getParameterBindings(Method m) {
         Class<?>[] paramTypes = m.getParameterTypes();
         Annotation[][] paramAnnotations = m.getParameterAnnotations();
-        Object[] result = new Object[paramTypes.length];
+        ParameterBinding[] result = new ParameterBinding[paramTypes.length];
         for (int i = 0; i < paramTypes.length; ++i) {
             if (paramTypes[i].isAssignableFrom(CommandSender.class)) {
-                result[i] = sender;
-            } else if (CommandUtils.isSupportedType(paramTypes[i])) {
+                result[i] = new ParameterBinding(true, null, null);
+            } else {
                 String paramName = null;
-                Annotation[] annotations = paramAnnotations[i];
-                for (Annotation annotation : annotations) {
+                for (Annotation annotation : paramAnnotations[i]) {
                     if (annotation instanceof CommandOption) {
                         CommandOption commandOption = (CommandOption) annotation;
                         String longName = commandOption.name().isEmpty() ?
@@ -96,50 +430,130 @@ class CommandExecutor implements org.bukkit.command.CommandExecutor {
                         paramName = commandParameter.name();
                     }
                 }
-                if (paramName != null) {
-                    if (paramTypes[i] == boolean.class || paramTypes[i] == Boolean.class) {
-                        result[i] = namespace.getBoolean(paramName);
-                    } else if (paramTypes[i] == int.class || paramTypes[i] == Integer.class) {
-                        result[i] = namespace.getInt(paramName);
-                    } else if (paramTypes[i] == long.class || paramTypes[i] == Long.class) {
-                        result[i] = namespace.getLong(paramName);
-                    } else if (paramTypes[i] == String.class) {
-                        result[i] = namespace.getString(paramName);
-                    } else {
-                        result[i] = null;
+                result[i] = new ParameterBinding(false, paramName, getNullValue(paramTypes[i]));
+            }
+        }
+        return result;
+    }
+
+    private static Object getNullValue(Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        } else if (type == int.class) {
+            return 0;
+        } else if (type == long.class) {
+            return 0L;
+        } else {
+            return null;
+        }
+    }
+
+    private static List<String> getOptionNames(Method m) {
+        List<String> names = new ArrayList<>();
+        for (Annotation[] annotations : m.getParameterAnnotations()) {
+            for (Annotation annotation : annotations) {
+                if (annotation instanceof CommandOption) {
+                    CommandOption commandOption = (CommandOption) annotation;
+                    if (!commandOption.name().isEmpty()) {
+                        names.add("--" + commandOption.name());
+                    }
+                    if (Character.isLetterOrDigit(commandOption.shortName())) {
+                        names.add("-" + commandOption.shortName());
                     }
-                } else {
-                    result[i] = null;
                 }
-            } else {
-                throw new UnsupportedOperationException(String.format("The type %s is not supported.",
-                        paramTypes[i].getCanonicalName()));
             }
         }
-        return result;
+        return names;
     }
 
     private ArgumentParser getParserForCommand(Method m, Command c) {
         Class<?>[] paramTypes = m.getParameterTypes();
         Annotation[][] paramAnnotations = m.getParameterAnnotations();
         if (paramTypes.length == paramAnnotations.length) {
+            for (Class<?> paramType : paramTypes) {
+                if (!ArgumentUtils.isSupportedType(paramType) && !paramType.isAssignableFrom(CommandSender.class)) {
+                    throw new UnsupportedOperationException(String.format("The type %s is not supported.",
+                            paramType.getCanonicalName()));
+                }
+            }
             Boolean[] paramFlags = Arrays.stream(paramTypes)
                     .map(t -> t == boolean.class || t == Boolean.class)
                     .collect(Collectors.toList())
                     .toArray(new Boolean[paramTypes.length]);
-            return CommandUtils.getArgumentParser(c.command(), c.description(), paramAnnotations, paramTypes, paramFlags);
+            return ArgumentUtils.getArgumentParser(c.command(), c.description(), paramAnnotations, paramTypes,
+                    paramFlags);
         } else {
             throw new IllegalStateException("Internal error.");
         }
     }
 
+    /**
+     * Immutable snapshot of the registered commands and their interceptor chains, replaced as a whole when commands
+     * are reloaded or interceptors change.
+     */
+    private static class DispatchTable {
+        static final DispatchTable EMPTY = new DispatchTable(Collections.emptyMap(), Collections.emptyMap(),
+                Collections.emptyMap(), 0, 0);
+
+        final Map<String, CommandEntry[]> commands;
+        final Map<String, BKTree> optionIndexes;
+        final Map<String, CommandInterceptor[]> interceptorChains;
+        final int count;
+        final int reused;
+
+        DispatchTable(Map<String, CommandEntry[]> commands, Map<String, BKTree> optionIndexes,
+                      Map<String, CommandInterceptor[]> interceptorChains, int count, int reused) {
+            this.commands = commands;
+            this.optionIndexes = optionIndexes;
+            this.interceptorChains = interceptorChains;
+            this.count = count;
+            this.reused = reused;
+        }
+
+        DispatchTable withInterceptorChains(Map<String, CommandInterceptor[]> interceptorChains) {
+            return new DispatchTable(commands, optionIndexes, interceptorChains, count, reused);
+        }
+
+        Map<Method, List<Command>> getMethodCommands() {
+            Map<Method, List<Command>> result = new HashMap<>();
+            for (CommandEntry[] commandEntries : commands.values()) {
+                for (CommandEntry commandEntry : commandEntries) {
+                    result.computeIfAbsent(commandEntry.method, k -> new ArrayList<>()).add(commandEntry.command);
+                }
+            }
+            return result;
+        }
+    }
+
     private static class CommandEntry {
+        final Command command;
         final String name;
+        final Method method;
+        final ParameterBinding[] bindings;
         final ArgumentParser argumentParser;
+        final String permission;
+        final String permissionMessage;
 
-        CommandEntry(String name, ArgumentParser argumentParser) {
-            this.name = name;
+        CommandEntry(Command command, Method method, ParameterBinding[] bindings, ArgumentParser argumentParser) {
+            this.command = command;
+            this.name = command.command();
+            this.method = method;
+            this.bindings = bindings;
             this.argumentParser = argumentParser;
+            this.permission = command.permission();
+            this.permissionMessage = command.permissionMessage();
+        }
+    }
+
+    private static class ParameterBinding {
+        final boolean sender;
+        final String name;
+        final Object nullValue;
+
+        ParameterBinding(boolean sender, String name, Object nullValue) {
+            this.sender = sender;
+            this.name = name;
+            this.nullValue = nullValue;
         }
     }
 }
@@ -0,0 +1,56 @@
+package com.ivan1pl.spigot.utils;
+
+/**
+ * <p>Interceptor invoked around command dispatch. Interceptors can be registered for all commands of a plugin or for a
+ * single command using {@link CommandUtils#addInterceptor(org.bukkit.plugin.java.JavaPlugin, CommandInterceptor)}
+ * and {@link CommandUtils#addInterceptor(org.bukkit.plugin.java.JavaPlugin, String, CommandInterceptor)}.</p>
+ *
+ * <p>Interceptors are invoked in registration order, plugin-wide interceptors before command-specific ones. All methods
+ * have default implementations, override only the ones you need.</p>
+ */
+public interface CommandInterceptor {
+    /**
+     * Invoked before command arguments are parsed.
+     * @param invocation command invocation
+     * @return {@code false} to stop processing the command (no further interceptors or methods will be invoked)
+     */
+    default boolean beforeParse(CommandInvocation invocation) {
+        return true;
+    }
+
+    /**
+     * Invoked after command arguments were successfully parsed, when the method that will handle the command is
+     * already known.
+     * @param invocation command invocation
+     */
+    default void afterParse(CommandInvocation invocation) {
+    }
+
+    /**
+     * Invoked around the command method. Implementations should call {@link CommandInvocation#proceed()} to invoke the
+     * next interceptor (or the command method itself), or skip it to suppress the command.
+     * @param invocation command invocation
+     * @throws Exception if the command method or any of the following interceptors failed
+     */
+    default void aroundInvoke(CommandInvocation invocation) throws Exception {
+        invocation.proceed();
+    }
+
+    /**
+     * Invoked when the command method or any of the interceptors (including {@link #beforeParse(CommandInvocation)} and
+     * {@link #afterParse(CommandInvocation)}) failed. Interceptors are notified in reverse order.
+     * @param invocation command invocation
+     * @param error exception thrown by the command method or interceptor
+     */
+    default void onError(CommandInvocation invocation, Throwable error) {
+    }
+
+    /**
+     * Invoked after the command was processed, regardless of the outcome (also when processing was stopped by
+     * {@link #beforeParse(CommandInvocation)} or when no method accepted the arguments).
+     * @param invocation command invocation
+     * @param handled value returned to the server, {@code false} means that usage message will be displayed
+     */
+    default void afterDispatch(CommandInvocation invocation, boolean handled) {
+    }
+}
@@ -0,0 +1,130 @@
+package com.ivan1pl.spigot.utils;
+
+import org.bukkit.command.CommandSender;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Single command invocation, passed to {@link CommandInterceptor} methods.
+ */
+public class CommandInvocation {
+    private final CommandSender sender;
+    private final String command;
+    private final String label;
+    private final String[] args;
+    private final CommandInterceptor[] interceptors;
+    private final long startTime = System.nanoTime();
+    private Method method;
+    private Object[] parameters;
+    private Target target;
+    private int position;
+    private Throwable error;
+
+    CommandInvocation(CommandSender sender, String command, String label, String[] args,
+                      CommandInterceptor[] interceptors) {
+        this.sender = sender;
+        this.command = command;
+        this.label = label;
+        this.args = args;
+        this.interceptors = interceptors;
+    }
+
+    /**
+     * Get the source of the command.
+     * @return command sender
+     */
+    public CommandSender getSender() {
+        return sender;
+    }
+
+    /**
+     * Get the name of the executed command.
+     * @return command name
+     */
+    public String getCommand() {
+        return command;
+    }
+
+    /**
+     * Get the alias of the command which was used.
+     * @return command label
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Get raw command arguments.
+     * @return command arguments
+     */
+    public String[] getArgs() {
+        return args;
+    }
+
+    /**
+     * Get the method which handles the command.
+     * @return command method, or {@code null} if arguments were not parsed yet
+     */
+    public Method getMethod() {
+        return method;
+    }
+
+    /**
+     * Get values of method parameters. The returned array can be modified to change the values passed to the method.
+     * @return method parameters, or {@code null} if arguments were not parsed yet
+     */
+    public Object[] getParameters() {
+        return parameters;
+    }
+
+    /**
+     * Get the exception thrown by the command method or one of the interceptors.
+     * @return invocation error, or {@code null} if there was no error (yet)
+     */
+    public Throwable getError() {
+        return error;
+    }
+
+    /**
+     * Get the value of {@link System#nanoTime()} when the command was received.
+     * @return invocation start time
+     */
+    public long getStartTime() {
+        return startTime;
+    }
+
+    /**
+     * Invoke the next interceptor in chain or, if there are no more interceptors, the command method.
+     * @throws Exception if the command method or any of the following interceptors failed
+     */
+    public void proceed() throws Exception {
+        if (target == null) {
+            throw new IllegalStateException("Command arguments were not parsed yet.");
+        }
+        if (position < interceptors.length) {
+            interceptors[position++].aroundInvoke(this);
+        } else {
+            target.invoke();
+        }
+    }
+
+    CommandInterceptor[] getInterceptors() {
+        return interceptors;
+    }
+
+    void setError(Throwable error) {
+        this.error = error;
+    }
+
+    void setTarget(Method method, Object[] parameters, Target target) {
+        this.method = method;
+        this.parameters = parameters;
+        this.target = target;
+        this.position = 0;
+    }
+
+    interface Target {
+        void invoke() throws IllegalAccessException, InvocationTargetException;
+    }
+}
@@ -0,0 +1,208 @@
+package com.ivan1pl.spigot.utils;
+
+import com.ivan1pl.spigot.annotations.CacheResult;
+import com.ivan1pl.spigot.annotations.Command;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Entity;
+
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of command results for methods annotated with {@link CacheResult}. Methods which do not return
+ * {@code String} or {@code String[]} are not cached.
+ *
+ * Use {@link CommandUtils#getResultCache(org.bukkit.plugin.java.JavaPlugin)} to obtain the cache of a plugin.
+ */
+public class CommandResultCache {
+    private volatile Map<Method, MethodCache> methodCaches = Collections.emptyMap();
+    private volatile Map<String, List<MethodCache>> commandCaches = Collections.emptyMap();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    CommandResultCache(Map<Method, List<Command>> methodCommands) {
+        update(methodCommands, methodCommands.keySet());
+    }
+
+    /**
+     * Remove all cached results of the given command.
+     * @param command command name
+     */
+    public void invalidate(String command) {
+        for (MethodCache methodCache : commandCaches.getOrDefault(command, Collections.emptyList())) {
+            methodCache.clear();
+        }
+    }
+
+    /**
+     * Remove cached result of the given command for specific arguments (for all senders).
+     * @param command command name
+     * @param arguments values of method parameters (excluding {@code CommandSender}), in declaration order
+     */
+    public void invalidate(String command, Object... arguments) {
+        List<Object> key = Arrays.asList(arguments);
+        for (MethodCache methodCache : commandCaches.getOrDefault(command, Collections.emptyList())) {
+            methodCache.remove(key);
+        }
+    }
+
+    /**
+     * Remove all cached results.
+     */
+    public void invalidateAll() {
+        for (MethodCache methodCache : methodCaches.values()) {
+            methodCache.clear();
+        }
+    }
+
+    /**
+     * Get the number of command invocations answered from the cache.
+     * @return cache hit count
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Get the number of invocations of cacheable commands which had to be executed.
+     * @return cache miss count
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Replace the set of cached methods. Results of methods which were not rebuilt are kept.
+     * @param methodCommands all command methods
+     * @param rebuilt methods whose cached results must be discarded
+     */
+    synchronized void update(Map<Method, List<Command>> methodCommands, Set<Method> rebuilt) {
+        Map<Method, MethodCache> newMethodCaches = new HashMap<>();
+        Map<String, List<MethodCache>> newCommandCaches = new HashMap<>();
+        for (Map.Entry<Method, List<Command>> entry : methodCommands.entrySet()) {
+            CacheResult cacheResult = entry.getKey().getDeclaredAnnotation(CacheResult.class);
+            Class<?> returnType = entry.getKey().getReturnType();
+            if (cacheResult != null && (returnType == String.class || returnType == String[].class)) {
+                MethodCache methodCache = rebuilt.contains(entry.getKey()) ? null :
+                        methodCaches.get(entry.getKey());
+                if (methodCache == null) {
+                    methodCache = new MethodCache(cacheResult.ttl(), cacheResult.maxSize(), cacheResult.perSender());
+                }
+                newMethodCaches.put(entry.getKey(), methodCache);
+                for (Command command : entry.getValue()) {
+                    newCommandCaches.computeIfAbsent(command.command(), k -> new ArrayList<>()).add(methodCache);
+                }
+            }
+        }
+        methodCaches = newMethodCaches;
+        commandCaches = newCommandCaches;
+    }
+
+    boolean isCacheable(Method m) {
+        return methodCaches.containsKey(m);
+    }
+
+    List<Object> getKey(Method m, CommandSender sender, Object[] parameters) {
+        MethodCache methodCache = methodCaches.get(m);
+        List<Object> key = new ArrayList<>(parameters.length + 1);
+        if (methodCache != null && methodCache.perSender) {
+            //players and other entities are identified by UUID, so that the key does not keep them reachable
+            key.add(sender instanceof Entity ? ((Entity) sender).getUniqueId() : sender.getName());
+        }
+        for (Object parameter : parameters) {
+            if (!(parameter instanceof CommandSender)) {
+                key.add(parameter);
+            }
+        }
+        return key;
+    }
+
+    boolean replay(Method m, List<Object> key, CommandSender sender) {
+        MethodCache methodCache = methodCaches.get(m);
+        //the method may have been removed by a concurrent reload
+        String[] messages = methodCache == null ? null : methodCache.get(key);
+        if (messages == null) {
+            misses.incrementAndGet();
+            return false;
+        }
+        hits.incrementAndGet();
+        if (messages.length > 0) {
+            sender.sendMessage(messages);
+        }
+        return true;
+    }
+
+    static String[] toMessages(Object result) {
+        if (result instanceof String) {
+            return new String[] { (String) result };
+        } else if (result instanceof String[]) {
+            return ((String[]) result).clone();
+        } else {
+            return new String[0];
+        }
+    }
+
+    void store(Method m, List<Object> key, String[] messages) {
+        MethodCache methodCache = methodCaches.get(m);
+        if (methodCache != null) {
+            methodCache.put(key, messages);
+        }
+    }
+
+    private static class MethodCache {
+        private final long ttlNanos;
+        private final boolean perSender;
+        private final Map<List<Object>, CachedResult> results;
+
+        MethodCache(long ttl, int maxSize, boolean perSender) {
+            this.ttlNanos = ttl > 0 ? TimeUnit.SECONDS.toNanos(ttl) : 0;
+            this.perSender = perSender;
+            this.results = new LinkedHashMap<List<Object>, CachedResult>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<List<Object>, CachedResult> eldest) {
+                    return size() > maxSize;
+                }
+            };
+        }
+
+        synchronized String[] get(List<Object> key) {
+            CachedResult result = results.get(key);
+            if (result == null) {
+                return null;
+            }
+            if (ttlNanos > 0 && System.nanoTime() - result.created > ttlNanos) {
+                results.remove(key);
+                return null;
+            }
+            return result.messages;
+        }
+
+        synchronized void put(List<Object> key, String[] messages) {
+            results.put(key, new CachedResult(messages, System.nanoTime()));
+        }
+
+        synchronized void remove(List<Object> arguments) {
+            if (perSender) {
+                results.keySet().removeIf(k -> k.subList(1, k.size()).equals(arguments));
+            } else {
+                results.remove(arguments);
+            }
+        }
+
+        synchronized void clear() {
+            results.clear();
+        }
+    }
+
+    private static class CachedResult {
+        final String[] messages;
+        final long created;
+
+        CachedResult(String[] messages, long created) {
+            this.messages = messages;
+            this.created = created;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.ivan1pl.spigot.utils;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.ServicePriority;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * <p>Command runtime shared by all plugins on the server which use spigot-utils.</p>
+ *
+ * <p>The shared runtime is registered in Bukkit {@code ServicesManager} by a host plugin (see
+ * {@link #register(Plugin)}). Commands of plugins enabled after the host plugin are attached to the shared runtime,
+ * which allows registering interceptors (e.g. audit log) for all plugins at once and collecting metrics in one
+ * place.</p>
+ *
+ * <p>To load spigot-utils classes only once, shade the library into the host plugin only. Other plugins should use it
+ * as a compile-only dependency and declare the host plugin in {@code depend}, so that library classes are resolved
+ * from the host plugin class loader. The runtime is never shared between plugins which load their own copies of the
+ * library.</p>
+ */
+public class CommandRuntime {
+    private final Plugin host;
+    private final List<CommandExecutor> executors = new CopyOnWriteArrayList<>();
+    private final List<CommandInterceptor> interceptors = new ArrayList<>();
+    private volatile CommandInterceptor[] interceptorArray = new CommandInterceptor[0];
+
+    private CommandRuntime(Plugin host) {
+        this.host = host;
+    }
+
+    /**
+     * Create the shared runtime and register it in {@code ServicesManager}. Does nothing if a runtime is already
+     * registered.
+     * @param host plugin owning the shared runtime (the service is unregistered when the plugin is disabled)
+     * @return shared runtime
+     */
+    public static synchronized CommandRuntime register(Plugin host) {
+        CommandRuntime runtime = getShared();
+        if (runtime == null) {
+            runtime = new CommandRuntime(host);
+            Bukkit.getServicesManager().register(CommandRuntime.class, runtime, host, ServicePriority.Normal);
+        }
+        return runtime;
+    }
+
+    /**
+     * Get the shared runtime.
+     * @return shared runtime, or {@code null} if none was registered
+     */
+    public static CommandRuntime getShared() {
+        CommandRuntime runtime = Bukkit.getServicesManager().load(CommandRuntime.class);
+        return runtime != null && runtime.host.isEnabled() ? runtime : null;
+    }
+
+    /**
+     * Get the plugin owning this runtime.
+     * @return host plugin
+     */
+    public Plugin getHost() {
+        return host;
+    }
+
+    /**
+     * Get plugins whose commands are attached to this runtime.
+     * @return plugins
+     */
+    public List<JavaPlugin> getPlugins() {
+        List<JavaPlugin> plugins = new ArrayList<>();
+        for (CommandExecutor executor : executors) {
+            plugins.add(executor.getPlugin());
+        }
+        return plugins;
+    }
+
+    /**
+     * Register interceptor invoked for all commands of all attached plugins. Runtime interceptors are invoked before
+     * plugin interceptors.
+     * @param interceptor command interceptor
+     */
+    public synchronized void addInterceptor(CommandInterceptor interceptor) {
+        interceptors.add(Objects.requireNonNull(interceptor));
+        updateInterceptors();
+    }
+
+    /**
+     * Unregister interceptor.
+     * @param interceptor command interceptor
+     */
+    public synchronized void removeInterceptor(CommandInterceptor interceptor) {
+        interceptors.remove(interceptor);
+        updateInterceptors();
+    }
+
+    /**
+     * Get the total number of command invocations answered from result caches of all attached plugins.
+     * @return cache hit count
+     */
+    public long getResultCacheHits() {
+        long hits = 0;
+        for (CommandExecutor executor : executors) {
+            hits += executor.getResultCache().getHits();
+        }
+        return hits;
+    }
+
+    /**
+     * Get the total number of result cache misses of all attached plugins.
+     * @return cache miss count
+     */
+    public long getResultCacheMisses() {
+        long misses = 0;
+        for (CommandExecutor executor : executors) {
+            misses += executor.getResultCache().getMisses();
+        }
+        return misses;
+    }
+
+    /**
+     * Get the total number of duplicate command invocations coalesced by all attached plugins.
+     * @return coalesced invocation count
+     */
+    public long getCoalescedCommands() {
+        long coalesced = 0;
+        for (CommandExecutor executor : executors) {
+            coalesced += executor.getCoalescer().getCoalesced();
+        }
+        return coalesced;
+    }
+
+    /**
+     * Get the total number of duplicate command invocations dropped by all attached plugins.
+     * @return dropped invocation count
+     */
+    public long getDroppedCommands() {
+        long dropped = 0;
+        for (CommandExecutor executor : executors) {
+            dropped += executor.getCoalescer().getDropped();
+        }
+        return dropped;
+    }
+
+    CommandInterceptor[] getInterceptors() {
+        return interceptorArray;
+    }
+
+    void attach(CommandExecutor executor) {
+        executors.add(executor);
+        executor.recompileInterceptorChains();
+    }
+
+    void detach(CommandExecutor executor) {
+        executors.remove(executor);
+    }
+
+    private void updateInterceptors() {
+        interceptorArray = interceptors.toArray(new CommandInterceptor[0]);
+        for (CommandExecutor executor : executors) {
+            executor.recompileInterceptorChains();
+        }
+    }
+}
@@ -2,23 +2,16 @@ package com.ivan1pl.spigot.utils;
 
 import com.google.common.collect.Maps;
 import com.ivan1pl.spigot.annotations.Command;
-import com.ivan1pl.spigot.annotations.CommandOption;
 import com.ivan1pl.spigot.annotations.CommandPackage;
-import com.ivan1pl.spigot.annotations.CommandParameter;
-import net.sourceforge.argparse4j.ArgumentParsers;
-import net.sourceforge.argparse4j.helper.HelpScreenException;
-import net.sourceforge.argparse4j.impl.Arguments;
-import net.sourceforge.argparse4j.inf.Argument;
-import net.sourceforge.argparse4j.inf.ArgumentAction;
-import net.sourceforge.argparse4j.inf.ArgumentParser;
-import net.sourceforge.argparse4j.inf.ArgumentParserException;
-import org.bukkit.command.CommandSender;
+import org.bukkit.command.PluginCommand;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.reflections.Reflections;
 import org.reflections.scanners.MethodAnnotationsScanner;
+import org.reflections.util.ClasspathHelper;
+import org.reflections.util.ConfigurationBuilder;
+import org.reflections.util.FilterBuilder;
 
 import java.lang.annotation.Annotation;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -27,15 +20,60 @@ import java.util.stream.Collectors;
  * Utility class used for preparing {@link Command} annotation processor and command executor.
  */
 public class CommandUtils {
+    private static final Map<JavaPlugin, CommandExecutor> executors = new WeakHashMap<>();
+    private static final Map<JavaPlugin, List<Reflections>> scans = new WeakHashMap<>();
 
     private CommandUtils() {}
 
     static private Set<Method> getCommandMethods(JavaPlugin plugin) {
+        return getAnnotatedMethods(plugin, Command.class);
+    }
+
+    /**
+     * Get methods annotated with the given annotation in the command packages of the plugin. The packages are scanned
+     * once, the scan is shared by commands and scheduled tasks.
+     * @param plugin plugin instance
+     * @param annotation method annotation
+     * @return annotated methods
+     */
+    static Set<Method> getAnnotatedMethods(JavaPlugin plugin, Class<? extends Annotation> annotation) {
         Objects.requireNonNull(plugin);
+        List<Reflections> pluginScans;
+        synchronized (scans) {
+            pluginScans = scans.get(plugin);
+        }
+        if (pluginScans == null) {
+            pluginScans = new ArrayList<>();
+            //the library may be loaded by another plugin (shared runtime), the default class loaders of Reflections
+            //would not see the classes of this plugin
+            ClassLoader classLoader = plugin.getClass().getClassLoader();
+            CommandPackage[] packages = plugin.getClass().getAnnotationsByType(CommandPackage.class);
+            for (CommandPackage commandPackage : packages) {
+                pluginScans.add(new Reflections(new ConfigurationBuilder()
+                        .addUrls(ClasspathHelper.forPackage(commandPackage.value(), classLoader))
+                        .addClassLoader(classLoader)
+                        .filterInputsBy(new FilterBuilder().includePackage(commandPackage.value()))
+                        .setScanners(new MethodAnnotationsScanner())));
+            }
+            synchronized (scans) {
+                scans.put(plugin, pluginScans);
+            }
+        }
+        Set<Method> methods = new HashSet<>();
+        for (Reflections reflections : pluginScans) {
+            methods.addAll(reflections.getMethodsAnnotatedWith(annotation));
+        }
+        return methods;
+    }
+
+    static private Set<Method> getCommandMethods(Class<?>[] handlerClasses) {
         Set<Method> commandMethods = new HashSet<>();
-        CommandPackage[] packages = plugin.getClass().getAnnotationsByType(CommandPackage.class);
-        for (CommandPackage commandPackage : packages) {
-            commandMethods.addAll(new Reflections(commandPackage.value(), new MethodAnnotationsScanner()).getMethodsAnnotatedWith(Command.class));
+        for (Class<?> handlerClass : handlerClasses) {
+            for (Method m : handlerClass.getDeclaredMethods()) {
+                if (m.isAnnotationPresent(Command.class) || m.isAnnotationPresent(Command.List.class)) {
+                    commandMethods.add(m);
+                }
+            }
         }
         return commandMethods;
     }
@@ -64,118 +102,166 @@ public class CommandUtils {
                 .flatMap(v -> v.stream().map(Command::command))
                 .collect(Collectors.toSet());
         CommandExecutor executor = new CommandExecutor(plugin, methodCommands);
+        synchronized (executors) {
+            executors.put(plugin, executor);
+        }
+        CommandRuntime runtime = CommandRuntime.getShared();
+        if (runtime != null) {
+            executor.setRuntime(runtime);
+            runtime.attach(executor);
+            plugin.getLogger().info("Using shared command runtime of plugin: " + runtime.getHost().getName());
+        }
         for (String commandName : commandNames) {
-            plugin.getCommand(commandName).setExecutor(executor);
-            plugin.getLogger().info("Registered command: " + commandName);
-        }
-    }
-
-    static ArgumentParser getArgumentParser(String command, String description, Annotation[][] paramAnnotations, Class<?>[] paramTypes, Boolean[] paramFlags) {
-        ArgumentParser parser = ArgumentParsers.newFor("/" + command).addHelp(false).build()
-                .description(description);
-        parser.addArgument("-h", "--help")
-                .action(new HelpArgumentAction())
-                .help("show this help message and exit")
-                .setDefault(Arguments.SUPPRESS);
-        for (int i = 0; i < paramAnnotations.length; ++i) {
-            Class<?> paramType = paramTypes != null && paramTypes.length > i ? paramTypes[i] : null;
-            if (paramType != null && !isSupportedType(paramType) && !paramType.isAssignableFrom(CommandSender.class)) {
-                throw new UnsupportedOperationException(String.format("The type %s is not supported.",
-                        paramType.getCanonicalName()));
-            } else if (paramType == null || isSupportedType(paramType)) {
-                Annotation[] annotations = paramAnnotations[i];
-                for (Annotation annotation : annotations) {
-                    if (annotation instanceof CommandOption) {
-                        CommandOption commandOption = (CommandOption) annotation;
-                        String longName = commandOption.name().isEmpty() ?
-                                null : "--" + commandOption.name();
-                        String shortName = Character.isLetterOrDigit(commandOption.shortName()) ?
-                                "-" + commandOption.shortName() : null;
-                        boolean hasArg = !paramFlags[i];
-                        String[] names;
-                        if (longName != null && shortName != null) {
-                            names = new String[] { shortName, longName };
-                        } else if (longName != null) {
-                            names = new String[] { longName };
-                        } else if (shortName != null) {
-                            names = new String[] { shortName };
-                        } else {
-                            throw new IllegalStateException("Option name not specified.");
-                        }
-                        Argument argument = parser.addArgument(names).help(commandOption.description());
-                        if (!hasArg) {
-                            argument.action(Arguments.storeTrue());
-                        } else if (paramType != null) {
-                            argument.type(paramType);
-                            if (!commandOption.defaultValue().isEmpty()) {
-                                argument.setDefault(commandOption.defaultValue());
-                            }
-                        } else {
-                            if (!commandOption.defaultValue().isEmpty()) {
-                                argument.setDefault(commandOption.defaultValue());
-                            }
-                        }
-                    } else if (annotation instanceof CommandParameter) {
-                        CommandParameter commandParameter = (CommandParameter) annotation;
-                        Argument argument = parser.addArgument(commandParameter.name())
-                                .help(commandParameter.description());
-                        if (commandParameter.optional()) {
-                            argument.nargs("?");
-                        }
-                        if (paramType != null) {
-                            argument.type(paramType);
-                        }
-                        if (!commandParameter.defaultValue().isEmpty() && paramType != null) {
-                            argument.setDefault(convertDefaultValue(paramType, commandParameter.defaultValue()));
-                        }
-                    }
-                }
+            registerCommand(plugin, executor, commandName);
+        }
+    }
+
+    /**
+     * <p>Reload commands declared in the given classes without reloading the plugin. If no classes are given, all
+     * command packages of the plugin are scanned again.</p>
+     *
+     * <p>Only command entries whose method or {@link Command} annotation changed are rebuilt, other entries (and
+     * instances of their declaring classes) are kept. The new command table replaces the old one atomically, commands
+     * dispatched during the reload use either the old or the new table. New command names must be declared in
+     * {@code plugin.yml}.</p>
+     * @param plugin plugin instance
+     * @param handlerClasses classes whose command methods changed (new versions, possibly loaded by a different class
+     *                       loader), classes without command methods remove their commands
+     * @throws IllegalStateException if commands of this plugin were not initialized
+     */
+    public static void reloadCommands(JavaPlugin plugin, Class<?>... handlerClasses) {
+        CommandExecutor executor = getExecutor(plugin);
+        if (handlerClasses.length == 0) {
+            synchronized (scans) {
+                scans.remove(plugin);
+            }
+        }
+        Set<Method> methods = handlerClasses.length == 0 ? getCommandMethods(plugin) :
+                getCommandMethods(handlerClasses);
+        Map<Method, List<Command>> methodCommands = Maps.asMap(methods, CommandUtils::getMethodCommands);
+        Set<String> commandNames = executor.reload(
+                handlerClasses.length == 0 ? null : new HashSet<>(Arrays.asList(handlerClasses)), methodCommands);
+        for (String commandName : commandNames) {
+            PluginCommand command = plugin.getCommand(commandName);
+            if (command == null || command.getExecutor() != executor) {
+                registerCommand(plugin, executor, commandName);
+            } else {
+                updatePermission(command, executor, commandName);
             }
         }
+    }
 
-        return parser;
+    static private void registerCommand(JavaPlugin plugin, CommandExecutor executor, String commandName) {
+        PluginCommand command = plugin.getCommand(commandName);
+        if (command == null) {
+            plugin.getLogger().warning("Command not declared in plugin.yml: " + commandName);
+            return;
+        }
+        updatePermission(command, executor, commandName);
+        command.setExecutor(executor);
+        command.setTabCompleter(executor);
+        plugin.getLogger().info("Registered command: " + commandName);
     }
 
-    private static Object convertDefaultValue(Class<?> targetClass, String value) {
-        Class<?> clazz;
-        if (targetClass == boolean.class) {
-            clazz = Boolean.class;
-        } else if (targetClass == long.class) {
-            clazz = Long.class;
-        } else if (targetClass == int.class) {
-            clazz = Integer.class;
+    static private void updatePermission(PluginCommand command, CommandExecutor executor, String commandName) {
+        Set<String> permissions = executor.getPermissions(commandName);
+        if (permissions.size() == 1 && !permissions.iterator().next().isEmpty()) {
+            command.setPermission(permissions.iterator().next());
         } else {
-            clazz = targetClass;
+            //@Command overloads require different permissions (the executor checks them separately, with localized
+            //messages) or none at all, the server must not reject the command before that; this also clears the
+            //permission set before a reload
+            command.setPermission(null);
         }
+    }
 
-        try {
-            return clazz.getConstructor(String.class).newInstance(value);
-        } catch (InstantiationException | InvocationTargetException | NoSuchMethodException | IllegalAccessException e) {
-            return value;
+    /**
+     * Release resources used by commands of the plugin (commands are no longer registered in the shared runtime).
+     * @param plugin plugin instance
+     */
+    public static void disableCommands(JavaPlugin plugin) {
+        CommandExecutor executor;
+        synchronized (executors) {
+            executor = executors.remove(plugin);
+        }
+        synchronized (scans) {
+            scans.remove(plugin);
+        }
+        if (executor != null && executor.getRuntime() != null) {
+            executor.getRuntime().detach(executor);
         }
     }
 
-    static boolean isSupportedType(Class<?> type) {
-        return type == boolean.class || type == Boolean.class || type == int.class || type == Integer.class ||
-                type == long.class || type == Long.class || type == String.class;
+    /**
+     * Get the cache of results of commands annotated with {@link com.ivan1pl.spigot.annotations.CacheResult}.
+     * @param plugin plugin instance
+     * @return command result cache
+     * @throws IllegalStateException if commands of this plugin were not initialized
+     */
+    public static CommandResultCache getResultCache(JavaPlugin plugin) {
+        return getExecutor(plugin).getResultCache();
     }
 
-    private static class HelpArgumentAction implements ArgumentAction {
+    /**
+     * Get the coalescer of duplicate invocations of commands annotated with
+     * {@link com.ivan1pl.spigot.annotations.Coalesce}.
+     * @param plugin plugin instance
+     * @return command coalescer
+     * @throws IllegalStateException if commands of this plugin were not initialized
+     */
+    public static CommandCoalescer getCoalescer(JavaPlugin plugin) {
+        return getExecutor(plugin).getCoalescer();
+    }
 
-        @Override
-        public void run(ArgumentParser parser, Argument arg,
-                        Map<String, Object> attrs, String flag, Object value)
-                throws ArgumentParserException {
-            throw new HelpScreenException(parser);
-        }
+    /**
+     * Get the catalog of localized messages used by commands of the plugin.
+     * @param plugin plugin instance
+     * @return message catalog
+     * @throws IllegalStateException if commands of this plugin were not initialized
+     */
+    public static MessageCatalog getMessageCatalog(JavaPlugin plugin) {
+        return getExecutor(plugin).getMessageCatalog();
+    }
 
-        @Override
-        public boolean consumeArgument() {
-            return false;
-        }
+    /**
+     * Register interceptor invoked for all commands of the plugin.
+     * @param plugin plugin instance
+     * @param interceptor command interceptor
+     * @throws IllegalStateException if commands of this plugin were not initialized
+     */
+    public static void addInterceptor(JavaPlugin plugin, CommandInterceptor interceptor) {
+        getExecutor(plugin).addInterceptor(Objects.requireNonNull(interceptor));
+    }
 
-        @Override
-        public void onAttach(Argument arg) {
+    /**
+     * Register interceptor invoked for a single command.
+     * @param plugin plugin instance
+     * @param command command name
+     * @param interceptor command interceptor
+     * @throws IllegalStateException if commands of this plugin were not initialized
+     */
+    public static void addInterceptor(JavaPlugin plugin, String command, CommandInterceptor interceptor) {
+        getExecutor(plugin).addInterceptor(Objects.requireNonNull(command), Objects.requireNonNull(interceptor));
+    }
+
+    /**
+     * Unregister interceptor (both plugin-wide and command-specific registrations are removed).
+     * @param plugin plugin instance
+     * @param interceptor command interceptor
+     * @throws IllegalStateException if commands of this plugin were not initialized
+     */
+    public static void removeInterceptor(JavaPlugin plugin, CommandInterceptor interceptor) {
+        getExecutor(plugin).removeInterceptor(interceptor);
+    }
+
+    static private CommandExecutor getExecutor(JavaPlugin plugin) {
+        CommandExecutor executor;
+        synchronized (executors) {
+            executor = executors.get(plugin);
+        }
+        if (executor == null) {
+            throw new IllegalStateException("Commands of plugin " + plugin.getName() + " were not initialized.");
         }
+        return executor;
     }
 }
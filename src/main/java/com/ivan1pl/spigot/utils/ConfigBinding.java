@@ -0,0 +1,50 @@
+package com.ivan1pl.spigot.utils;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Current snapshot of configuration described by an interface annotated with
+ * {@link com.ivan1pl.spigot.annotations.ConfigSection}. The snapshot is replaced atomically when configuration is
+ * reloaded, so values read from a single snapshot are always consistent.
+ * @param <T> configuration interface
+ */
+public class ConfigBinding<T> {
+    private final ConfigLoader<T> loader;
+    private final List<Consumer<T>> listeners = new CopyOnWriteArrayList<>();
+    private volatile T snapshot;
+
+    ConfigBinding(ConfigLoader<T> loader, ConfigurationSection config) {
+        this.loader = loader;
+        this.snapshot = loader.load(config);
+    }
+
+    /**
+     * Get the current configuration snapshot. Keep the returned object instead of calling this method repeatedly if
+     * the values should not change in the middle of an operation.
+     * @return configuration snapshot
+     */
+    public T get() {
+        return snapshot;
+    }
+
+    /**
+     * Register listener invoked after the configuration was reloaded. Listeners may be invoked outside the server
+     * thread.
+     * @param listener listener receiving the new snapshot
+     */
+    public void addListener(Consumer<T> listener) {
+        listeners.add(listener);
+    }
+
+    void update(ConfigurationSection config) {
+        T newSnapshot = loader.load(config);
+        snapshot = newSnapshot;
+        for (Consumer<T> listener : listeners) {
+            listener.accept(newSnapshot);
+        }
+    }
+}
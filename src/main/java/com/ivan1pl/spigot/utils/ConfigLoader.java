@@ -0,0 +1,22 @@
+package com.ivan1pl.spigot.utils;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+/**
+ * Loader of configuration snapshots. Implementations are generated at compile time for interfaces annotated with
+ * {@link com.ivan1pl.spigot.annotations.ConfigSection}.
+ * @param <T> configuration interface
+ */
+public interface ConfigLoader<T> {
+    /**
+     * Suffix appended to the binary name of the configuration interface to obtain the name of the generated loader.
+     */
+    String SUFFIX = "$$ConfigLoader";
+
+    /**
+     * Create configuration snapshot.
+     * @param config root configuration section
+     * @return immutable snapshot of configuration values
+     */
+    T load(ConfigurationSection config);
+}
@@ -0,0 +1,202 @@
+package com.ivan1pl.spigot.utils;
+
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Level;
+
+/**
+ * <p>Utility class used for binding configuration to interfaces annotated with
+ * {@link com.ivan1pl.spigot.annotations.ConfigSection}.</p>
+ *
+ * <p>Configuration is read from the plugin {@code config.yml} file. When hot reload is enabled, the file is watched for
+ * changes and all bindings of the plugin are updated without reloading the plugin.</p>
+ */
+public class ConfigUtils {
+    private static final String CONFIG_FILE = "config.yml";
+    private static final long RELOAD_DELAY = 200;
+
+    private static final Map<JavaPlugin, PluginConfig> configs = new WeakHashMap<>();
+
+    private ConfigUtils() {}
+
+    /**
+     * Bind configuration of the plugin to the given interface.
+     * @param plugin plugin instance
+     * @param type interface annotated with {@link com.ivan1pl.spigot.annotations.ConfigSection}
+     * @param <T> configuration interface
+     * @return configuration binding
+     * @throws IllegalArgumentException if no loader was generated for the interface
+     */
+    public static <T> ConfigBinding<T> bind(JavaPlugin plugin, Class<T> type) {
+        ConfigLoader<T> loader = getLoader(type);
+        ConfigBinding<T> binding = new ConfigBinding<>(loader, plugin.getConfig());
+        getPluginConfig(plugin).bindings.add(binding);
+        return binding;
+    }
+
+    /**
+     * Start watching {@code config.yml} of the plugin and update all its bindings when the file changes. Does nothing if
+     * hot reload was already enabled.
+     * @param plugin plugin instance
+     * @throws IOException if the watch service could not be created
+     */
+    public static void enableHotReload(JavaPlugin plugin) throws IOException {
+        PluginConfig pluginConfig = getPluginConfig(plugin);
+        synchronized (pluginConfig) {
+            if (pluginConfig.watcher == null) {
+                pluginConfig.watcher = new Watcher(plugin);
+                pluginConfig.watcher.start();
+            }
+        }
+    }
+
+    /**
+     * Reload {@code config.yml} of the plugin and update all its bindings. The configuration returned by
+     * {@link JavaPlugin#getConfig()} is reloaded as well (on the server thread, in the next tick if this method is
+     * called from another thread).
+     * @param plugin plugin instance
+     * @return {@code true} if the configuration was reloaded, {@code false} if the file is invalid (bindings keep the
+     * previous values) or there are no bindings
+     */
+    public static boolean reload(JavaPlugin plugin) {
+        PluginConfig pluginConfig;
+        synchronized (configs) {
+            pluginConfig = configs.get(plugin);
+        }
+        if (pluginConfig == null) {
+            return false;
+        }
+        YamlConfiguration config = new YamlConfiguration();
+        try {
+            File file = new File(plugin.getDataFolder(), CONFIG_FILE);
+            if (file.exists()) {
+                config.load(file);
+            }
+            try (InputStream defaults = plugin.getResource(CONFIG_FILE)) {
+                if (defaults != null) {
+                    config.setDefaults(YamlConfiguration.loadConfiguration(
+                            new InputStreamReader(defaults, StandardCharsets.UTF_8)));
+                }
+            }
+        } catch (IOException | InvalidConfigurationException e) {
+            plugin.getLogger().log(Level.SEVERE, "Failed to reload configuration.", e);
+            return false;
+        }
+        for (ConfigBinding<?> binding : pluginConfig.bindings) {
+            binding.update(config);
+        }
+        if (plugin.getServer().isPrimaryThread()) {
+            plugin.reloadConfig();
+        } else if (plugin.isEnabled()) {
+            plugin.getServer().getScheduler().runTask(plugin, plugin::reloadConfig);
+        }
+        return true;
+    }
+
+    /**
+     * Stop watching configuration of the plugin and release all bindings.
+     * @param plugin plugin instance
+     */
+    public static void disableConfigBindings(JavaPlugin plugin) {
+        PluginConfig pluginConfig;
+        synchronized (configs) {
+            pluginConfig = configs.remove(plugin);
+        }
+        if (pluginConfig != null) {
+            synchronized (pluginConfig) {
+                if (pluginConfig.watcher != null) {
+                    pluginConfig.watcher.close();
+                    pluginConfig.watcher = null;
+                }
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> ConfigLoader<T> getLoader(Class<T> type) {
+        try {
+            return (ConfigLoader<T>) Class.forName(type.getName() + ConfigLoader.SUFFIX, true, type.getClassLoader())
+                    .newInstance();
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            throw new IllegalArgumentException("No configuration loader generated for " + type.getName() + ".", e);
+        }
+    }
+
+    private static PluginConfig getPluginConfig(JavaPlugin plugin) {
+        synchronized (configs) {
+            return configs.computeIfAbsent(plugin, p -> new PluginConfig());
+        }
+    }
+
+    private static class PluginConfig {
+        final List<ConfigBinding<?>> bindings = new CopyOnWriteArrayList<>();
+        Watcher watcher;
+    }
+
+    private static class Watcher extends Thread {
+        private final JavaPlugin plugin;
+        private final WatchService watchService;
+        private volatile boolean running = true;
+
+        Watcher(JavaPlugin plugin) throws IOException {
+            super("spigot-utils config watcher (" + plugin.getName() + ")");
+            this.plugin = plugin;
+            this.watchService = FileSystems.getDefault().newWatchService();
+            Path directory = plugin.getDataFolder().toPath();
+            Files.createDirectories(directory);
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                WatchKey key;
+                try {
+                    key = watchService.take();
+                } catch (InterruptedException | ClosedWatchServiceException e) {
+                    return;
+                }
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.context() instanceof Path && CONFIG_FILE.equals(event.context().toString())) {
+                        changed = true;
+                    }
+                }
+                key.reset();
+                if (changed) {
+                    try {
+                        // editors often write the file in several steps, wait for them to finish
+                        Thread.sleep(RELOAD_DELAY);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    if (reload(plugin)) {
+                        plugin.getLogger().info("Configuration reloaded.");
+                    }
+                }
+            }
+        }
+
+        void close() {
+            running = false;
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.WARNING, "Failed to close configuration watcher.", e);
+            }
+            interrupt();
+        }
+    }
+}
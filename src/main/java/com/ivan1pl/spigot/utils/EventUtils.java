@@ -0,0 +1,130 @@
+package com.ivan1pl.spigot.utils;
+
+import org.bukkit.event.Event;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.EventExecutor;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.logging.Level;
+
+/**
+ * Utility class used for registering event handlers annotated with
+ * {@link com.ivan1pl.spigot.annotations.EventListener}.
+ */
+public class EventUtils {
+    /**
+     * Name of the resource listing event executors generated at compile time.
+     */
+    public static final String INDEX_FILE = "META-INF/spigot-utils/listeners";
+
+    private static final Map<JavaPlugin, ListenerTimings> timings = new WeakHashMap<>();
+
+    private EventUtils() {}
+
+    /**
+     * Register all event handlers listed in the index generated at compile time.
+     * @param plugin plugin instance
+     */
+    public static void initListeners(JavaPlugin plugin) {
+        List<String[]> entries;
+        try (InputStream in = plugin.getResource(INDEX_FILE)) {
+            if (in == null) {
+                return;
+            }
+            entries = readIndex(in);
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.SEVERE, "Failed to read event listener index.", e);
+            return;
+        }
+
+        ListenerTimings listenerTimings = new ListenerTimings();
+        Map<String, Listener> listeners = new HashMap<>();
+        for (String[] entry : entries) {
+            try {
+                Listener listener = listeners.get(entry[0]);
+                if (listener == null) {
+                    listener = (Listener) Class.forName(entry[0], true, plugin.getClass().getClassLoader())
+                            .newInstance();
+                    listeners.put(entry[0], listener);
+                }
+                Class<? extends Event> eventClass = Class.forName(entry[1], true, plugin.getClass().getClassLoader())
+                        .asSubclass(Event.class);
+                EventExecutor executor = (EventExecutor) Class.forName(entry[2], true,
+                        plugin.getClass().getClassLoader()).newInstance();
+                if (Boolean.parseBoolean(entry[5])) {
+                    executor = new TimedEventExecutor(executor, listenerTimings.register(entry[0] + "#" + entry[6]));
+                }
+                plugin.getServer().getPluginManager().registerEvent(eventClass, listener,
+                        EventPriority.valueOf(entry[3]), executor, plugin, Boolean.parseBoolean(entry[4]));
+            } catch (ReflectiveOperationException | ClassCastException e) {
+                plugin.getLogger().log(Level.SEVERE, "Failed to register event listener: " + entry[0] + "#" +
+                        entry[6], e);
+            }
+        }
+        synchronized (timings) {
+            timings.put(plugin, listenerTimings);
+        }
+        plugin.getLogger().info("Registered event listeners: " + entries.size());
+    }
+
+    /**
+     * Get execution time statistics of timed event handlers.
+     * @param plugin plugin instance
+     * @return listener timings, or {@code null} if listeners of this plugin were not initialized
+     */
+    public static ListenerTimings getTimings(JavaPlugin plugin) {
+        synchronized (timings) {
+            return timings.get(plugin);
+        }
+    }
+
+    /**
+     * Release resources used by event handlers of the plugin (handlers themselves are unregistered by the server).
+     * @param plugin plugin instance
+     */
+    public static void disableListeners(JavaPlugin plugin) {
+        synchronized (timings) {
+            timings.remove(plugin);
+        }
+    }
+
+    private static List<String[]> readIndex(InputStream in) throws IOException {
+        List<String[]> entries = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            String[] entry = line.split("\t");
+            if (entry.length == 7) {
+                entries.add(entry);
+            }
+        }
+        return entries;
+    }
+
+    private static class TimedEventExecutor implements EventExecutor {
+        private final EventExecutor executor;
+        private final ListenerTimings.Timing timing;
+
+        TimedEventExecutor(EventExecutor executor, ListenerTimings.Timing timing) {
+            this.executor = executor;
+            this.timing = timing;
+        }
+
+        @Override
+        public void execute(Listener listener, Event event) throws org.bukkit.event.EventException {
+            long start = System.nanoTime();
+            try {
+                executor.execute(listener, event);
+            } finally {
+                timing.record(System.nanoTime() - start);
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.ivan1pl.spigot.utils;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Execution time statistics of event handlers annotated with
+ * {@link com.ivan1pl.spigot.annotations.EventListener#timed()}.
+ *
+ * Use {@link EventUtils#getTimings(org.bukkit.plugin.java.JavaPlugin)} to obtain statistics of a plugin.
+ */
+public class ListenerTimings {
+    private final Map<String, Timing> timings = new LinkedHashMap<>();
+
+    ListenerTimings() {}
+
+    /**
+     * Get statistics of all timed handlers.
+     * @return map of handler name ({@code class#method}) to its statistics
+     */
+    public synchronized Map<String, Timing> getTimings() {
+        return new LinkedHashMap<>(timings);
+    }
+
+    /**
+     * Reset all statistics.
+     */
+    public synchronized void reset() {
+        timings.values().forEach(Timing::reset);
+    }
+
+    synchronized Timing register(String handler) {
+        return timings.computeIfAbsent(handler, k -> new Timing());
+    }
+
+    /**
+     * Execution time statistics of a single handler.
+     */
+    public static class Timing {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder total = new LongAdder();
+        private final AtomicLong max = new AtomicLong();
+
+        Timing() {}
+
+        /**
+         * Get the number of handler invocations.
+         * @return invocation count
+         */
+        public long getCount() {
+            return count.sum();
+        }
+
+        /**
+         * Get total execution time.
+         * @param unit time unit
+         * @return total execution time
+         */
+        public long getTotal(TimeUnit unit) {
+            return unit.convert(total.sum(), TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * Get the longest execution time.
+         * @param unit time unit
+         * @return maximum execution time
+         */
+        public long getMax(TimeUnit unit) {
+            return unit.convert(max.get(), TimeUnit.NANOSECONDS);
+        }
+
+        void record(long nanos) {
+            count.increment();
+            total.add(nanos);
+            long current;
+            while (nanos > (current = max.get()) && !max.compareAndSet(current, nanos)) {
+                // retry
+            }
+        }
+
+        void reset() {
+            count.reset();
+            total.reset();
+            max.set(0);
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.ivan1pl.spigot.utils;
+
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.io.*;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.security.CodeSource;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.logging.Level;
+
+/**
+ * <p>Catalog of localized message templates of a plugin.</p>
+ *
+ * <p>Messages are read from {@code messages.properties} and {@code messages_<language>.properties} /
+ * {@code messages_<language>_<country>.properties} files (UTF-8 encoded) in the plugin jar. Files with the same names
+ * in the plugin data folder override messages from the jar. Templates reference arguments by index, e.g.
+ * {@code Unknown option {0}, did you mean {1}?}.</p>
+ *
+ * <p>The locale of a player is taken from the client settings, other senders use {@code messages.properties}. Locales
+ * are matched against the message files which exist (file names use lower case locales, as reported by the client), a
+ * locale without its own file falls back to its language and then to {@code messages.properties}. Files of each
+ * locale are loaded and parsed once, when a message is first rendered for that locale.</p>
+ *
+ * <p>Use {@link CommandUtils#getMessageCatalog(JavaPlugin)} to obtain the catalog of a plugin.</p>
+ */
+public class MessageCatalog {
+    /**
+     * Key of the message displayed when an unknown option resembling a valid one was given. Arguments: unknown option,
+     * suggested option.
+     */
+    public static final String UNKNOWN_OPTION = "spigot-utils.unknown-option";
+
+    /**
+     * Key of the default message displayed when the sender does not have the permission required by a command.
+     * Arguments: permission.
+     */
+    public static final String NO_PERMISSION = "spigot-utils.no-permission";
+
+    /**
+     * Key of the message displayed when a command method threw an exception. Arguments: command name.
+     */
+    public static final String COMMAND_ERROR = "spigot-utils.command-error";
+
+    /**
+     * Key of the message displayed when a duplicate invocation of a command annotated with
+     * {@link com.ivan1pl.spigot.annotations.Coalesce} was ignored. Arguments: command name.
+     */
+    public static final String COMMAND_IGNORED = "spigot-utils.command-ignored";
+
+    /**
+     * Key of the template wrapping command help. Arguments: command name, help text.
+     */
+    public static final String HELP = "spigot-utils.help";
+
+    private static final String BASE_NAME = "messages";
+    private static final String EXTENSION = ".properties";
+    private static final int MAX_BUILDER_CAPACITY = 4096;
+
+    private static final ThreadLocal<StringBuilder> builders = ThreadLocal.withInitial(StringBuilder::new);
+
+    private final JavaPlugin plugin;
+    private final Map<String, Map<String, MessageTemplate>> locales = new ConcurrentHashMap<>();
+    private volatile Set<String> availableLocales;
+
+    MessageCatalog(JavaPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Render message for the locale of the sender.
+     * @param sender command sender
+     * @param key message key
+     * @param args message arguments
+     * @return rendered message, or the key if there is no such message
+     */
+    public String render(CommandSender sender, String key, Object... args) {
+        return render(getLocale(sender), key, args);
+    }
+
+    /**
+     * Render message for the given locale.
+     * @param locale locale name (e.g. {@code en_us}), empty string for the default messages; locales without message
+     *               files fall back to their language or the default messages
+     * @param key message key
+     * @param args message arguments
+     * @return rendered message, or the key if there is no such message
+     */
+    public String render(String locale, String key, Object... args) {
+        MessageTemplate template = getTemplates(locale).get(key);
+        if (template == null) {
+            return key;
+        }
+        StringBuilder builder = builders.get();
+        builder.setLength(0);
+        template.render(builder, args);
+        String result = builder.toString();
+        if (builder.capacity() > MAX_BUILDER_CAPACITY) {
+            builders.remove();
+        }
+        return result;
+    }
+
+    /**
+     * Render message for the locale of the sender and send it to the sender.
+     * @param sender command sender
+     * @param key message key
+     * @param args message arguments
+     */
+    public void send(CommandSender sender, String key, Object... args) {
+        sender.sendMessage(render(sender, key, args));
+    }
+
+    /**
+     * Check whether the message is defined for the locale of the sender.
+     * @param sender command sender
+     * @param key message key
+     * @return {@code true} if the message exists
+     */
+    public boolean contains(CommandSender sender, String key) {
+        return getTemplates(getLocale(sender)).containsKey(key);
+    }
+
+    /**
+     * Discard loaded messages, so that they are read again from the files when next used.
+     */
+    public void reload() {
+        availableLocales = null;
+        locales.clear();
+    }
+
+    private Map<String, MessageTemplate> getTemplates(String locale) {
+        //the locale is supplied by the client, only locales with message files are cached
+        locale = resolveLocale(locale);
+        Map<String, MessageTemplate> templates = locales.get(locale);
+        if (templates == null) {
+            templates = locales.computeIfAbsent(locale, this::loadTemplates);
+        }
+        return templates;
+    }
+
+    private String resolveLocale(String locale) {
+        if (locale.isEmpty()) {
+            return locale;
+        }
+        Set<String> available = getAvailableLocales();
+        if (available.contains(locale)) {
+            return locale;
+        }
+        int separator = locale.indexOf('_');
+        if (separator > 0 && available.contains(locale.substring(0, separator))) {
+            return locale.substring(0, separator);
+        }
+        return "";
+    }
+
+    private Set<String> getAvailableLocales() {
+        Set<String> available = availableLocales;
+        if (available == null) {
+            available = new HashSet<>();
+            try {
+                CodeSource codeSource = plugin.getClass().getProtectionDomain().getCodeSource();
+                File jarFile = codeSource == null ? null : new File(codeSource.getLocation().toURI());
+                if (jarFile != null && jarFile.isFile()) {
+                    try (JarFile jar = new JarFile(jarFile)) {
+                        for (Enumeration<JarEntry> entries = jar.entries(); entries.hasMoreElements(); ) {
+                            addLocale(available, entries.nextElement().getName());
+                        }
+                    }
+                }
+            } catch (IOException | URISyntaxException | IllegalArgumentException | SecurityException e) {
+                plugin.getLogger().log(Level.WARNING, "Failed to list message files in the plugin jar.", e);
+            }
+            String[] files = plugin.getDataFolder().list();
+            if (files != null) {
+                for (String file : files) {
+                    addLocale(available, file);
+                }
+            }
+            availableLocales = available;
+        }
+        return available;
+    }
+
+    private Map<String, MessageTemplate> loadTemplates(String locale) {
+        Properties messages = new Properties();
+        messages.setProperty(UNKNOWN_OPTION, "Unknown option {0}, did you mean {1}?");
+        messages.setProperty(NO_PERMISSION,
+                "I'm sorry, but you do not have permission to perform this command. Please contact the server " +
+                        "administrators if you believe that this is in error.");
+        messages.setProperty(COMMAND_ERROR, "An internal error occurred while attempting to perform this command.");
+        messages.setProperty(COMMAND_IGNORED, "The same command was sent moments ago, please wait.");
+        messages.setProperty(HELP, "{1}");
+        List<String> names = new ArrayList<>();
+        names.add(BASE_NAME + EXTENSION);
+        if (!locale.isEmpty()) {
+            int separator = locale.indexOf('_');
+            if (separator > 0) {
+                names.add(BASE_NAME + "_" + locale.substring(0, separator) + EXTENSION);
+            }
+            names.add(BASE_NAME + "_" + locale + EXTENSION);
+        }
+        for (String name : names) {
+            loadMessages(messages, name);
+        }
+        Map<String, MessageTemplate> templates = new HashMap<>();
+        for (String key : messages.stringPropertyNames()) {
+            templates.put(key, MessageTemplate.parse(messages.getProperty(key)));
+        }
+        return templates;
+    }
+
+    private void loadMessages(Properties messages, String name) {
+        try {
+            try (InputStream in = plugin.getResource(name)) {
+                if (in != null) {
+                    messages.load(new InputStreamReader(in, StandardCharsets.UTF_8));
+                }
+            }
+            File file = new File(plugin.getDataFolder(), name);
+            if (file.isFile()) {
+                try (InputStream in = new FileInputStream(file)) {
+                    messages.load(new InputStreamReader(in, StandardCharsets.UTF_8));
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            plugin.getLogger().log(Level.SEVERE, "Failed to load messages: " + name, e);
+        }
+    }
+
+    private static void addLocale(Set<String> locales, String fileName) {
+        if (fileName.startsWith(BASE_NAME + "_") && fileName.endsWith(EXTENSION)) {
+            locales.add(fileName.substring(BASE_NAME.length() + 1, fileName.length() - EXTENSION.length()));
+        }
+    }
+
+    private static String getLocale(CommandSender sender) {
+        if (sender instanceof Player) {
+            String locale = ((Player) sender).getLocale();
+            return locale == null ? "" : locale.toLowerCase(Locale.ROOT);
+        }
+        return "";
+    }
+}
@@ -0,0 +1,66 @@
+package com.ivan1pl.spigot.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>Message template parsed into literal segments and argument references, so that rendering is a single pass which
+ * appends segments to a builder.</p>
+ *
+ * <p>Arguments are referenced by their index in braces, e.g. {@code {0}}. Braces which do not form an argument
+ * reference are copied literally. References to missing arguments are rendered as written in the template.</p>
+ */
+final class MessageTemplate {
+    private final String[] literals;
+    private final int[] arguments;
+
+    private MessageTemplate(String[] literals, int[] arguments) {
+        this.literals = literals;
+        this.arguments = arguments;
+    }
+
+    static MessageTemplate parse(String pattern) {
+        List<String> literals = new ArrayList<>();
+        List<Integer> arguments = new ArrayList<>();
+        int start = 0;
+        int i = 0;
+        while (i < pattern.length()) {
+            int end = pattern.charAt(i) == '{' ? findReferenceEnd(pattern, i + 1) : -1;
+            if (end < 0) {
+                ++i;
+                continue;
+            }
+            literals.add(pattern.substring(start, i));
+            arguments.add(Integer.parseInt(pattern.substring(i + 1, end)));
+            start = i = end + 1;
+        }
+        literals.add(pattern.substring(start));
+        int[] argumentArray = new int[arguments.size()];
+        for (int j = 0; j < argumentArray.length; ++j) {
+            argumentArray[j] = arguments.get(j);
+        }
+        return new MessageTemplate(literals.toArray(new String[0]), argumentArray);
+    }
+
+    void render(StringBuilder builder, Object[] args) {
+        builder.append(literals[0]);
+        for (int i = 0; i < arguments.length; ++i) {
+            int argument = arguments[i];
+            if (argument < args.length) {
+                builder.append(args[argument]);
+            } else {
+                builder.append('{').append(argument).append('}');
+            }
+            builder.append(literals[i + 1]);
+        }
+    }
+
+    private static int findReferenceEnd(String pattern, int start) {
+        int i = start;
+        while (i < pattern.length() && i - start < 9 && pattern.charAt(i) >= '0' &&
+                pattern.charAt(i) <= '9') {
+            ++i;
+        }
+        return i > start && i < pattern.length() && pattern.charAt(i) == '}' ? i : -1;
+    }
+}
@@ -0,0 +1,166 @@
+package com.ivan1pl.spigot.utils;
+
+import com.ivan1pl.spigot.annotations.ScheduleUnit;
+import com.ivan1pl.spigot.annotations.Scheduled;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * <p>Utility class used for running methods annotated with {@link Scheduled}.</p>
+ *
+ * <p>All tasks of a plugin are driven by a single server task which runs every tick and advances two timing wheels:
+ * one counting server ticks and one counting wall-clock time (in 50 ms steps, catching up when the server is
+ * lagging). The wall clock starts with the first server tick, and catching up after a long pause (e.g. a server
+ * freeze) is limited to one revolution of the wheel (512 steps), time beyond that is skipped.</p>
+ *
+ * <p>Methods are found in the command packages of the plugin, using the same scan as
+ * {@link CommandUtils#initCommands(JavaPlugin)}.</p>
+ */
+public class SchedulerUtils {
+    private static final int WHEEL_SIZE = 512;
+    private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private static final Map<JavaPlugin, Driver> drivers = new WeakHashMap<>();
+
+    private SchedulerUtils() {}
+
+    /**
+     * Start the timing wheels of the plugin and schedule all methods annotated with {@link Scheduled}.
+     * @param plugin plugin instance
+     */
+    public static void initScheduledTasks(JavaPlugin plugin) {
+        Driver driver = new Driver(plugin);
+        Map<Class<?>, Object> owners = new HashMap<>();
+        for (Method m : CommandUtils.getAnnotatedMethods(plugin, Scheduled.class)) {
+            try {
+                Object owner = null;
+                if (!Modifier.isStatic(m.getModifiers())) {
+                    owner = owners.get(m.getDeclaringClass());
+                    if (owner == null) {
+                        owner = m.getDeclaringClass().newInstance();
+                        owners.put(m.getDeclaringClass(), owner);
+                    }
+                }
+                driver.schedule(m, owner, m.getDeclaredAnnotation(Scheduled.class));
+            } catch (IllegalAccessException | InstantiationException e) {
+                plugin.getLogger().log(Level.SEVERE,
+                        "Failed to instantiate declaring class for method: " + m.toString(), e);
+            }
+        }
+        driver.task = plugin.getServer().getScheduler().runTaskTimer(plugin, driver::tick, 1, 1);
+        synchronized (drivers) {
+            drivers.put(plugin, driver);
+        }
+    }
+
+    /**
+     * Get the timing wheel of the plugin counting server ticks. Use it to schedule large numbers of timers (e.g. one
+     * per player) without registering separate server tasks.
+     * @param plugin plugin instance
+     * @return timing wheel, must be used only from the server thread
+     * @throws IllegalStateException if scheduled tasks of this plugin were not initialized
+     */
+    public static TimingWheel getTimingWheel(JavaPlugin plugin) {
+        return getDriver(plugin).tickWheel;
+    }
+
+    /**
+     * Get the timing wheel of the plugin counting wall-clock time in 50 ms steps.
+     * @param plugin plugin instance
+     * @return timing wheel, must be used only from the server thread
+     * @throws IllegalStateException if scheduled tasks of this plugin were not initialized
+     */
+    public static TimingWheel getClockWheel(JavaPlugin plugin) {
+        return getDriver(plugin).clockWheel;
+    }
+
+    /**
+     * Stop all scheduled tasks of the plugin.
+     * @param plugin plugin instance
+     */
+    public static void disableScheduledTasks(JavaPlugin plugin) {
+        Driver driver;
+        synchronized (drivers) {
+            driver = drivers.remove(plugin);
+        }
+        if (driver != null && driver.task != null) {
+            driver.task.cancel();
+        }
+    }
+
+    static private Driver getDriver(JavaPlugin plugin) {
+        Driver driver;
+        synchronized (drivers) {
+            driver = drivers.get(plugin);
+        }
+        if (driver == null) {
+            throw new IllegalStateException("Scheduled tasks of plugin " + plugin.getName() + " were not initialized.");
+        }
+        return driver;
+    }
+
+    private static class Driver {
+        final JavaPlugin plugin;
+        final TimingWheel tickWheel;
+        final TimingWheel clockWheel;
+        long clockTime;
+        boolean started;
+        BukkitTask task;
+
+        Driver(JavaPlugin plugin) {
+            this.plugin = plugin;
+            this.tickWheel = new TimingWheel(WHEEL_SIZE, plugin.getLogger());
+            this.clockWheel = new TimingWheel(WHEEL_SIZE, plugin.getLogger());
+        }
+
+        void tick() {
+            tickWheel.tick();
+            long now = System.nanoTime();
+            if (!started) {
+                //the server may take a long time to start after the plugin is enabled
+                clockTime = now;
+                started = true;
+            } else if (now - clockTime > WHEEL_SIZE * TICK_NANOS) {
+                clockTime = now - WHEEL_SIZE * TICK_NANOS;
+            }
+            while (now - clockTime >= TICK_NANOS) {
+                clockWheel.tick();
+                clockTime += TICK_NANOS;
+            }
+        }
+
+        void schedule(Method m, Object owner, Scheduled scheduled) {
+            Runnable task = () -> invoke(m, owner);
+            if (scheduled.async()) {
+                Runnable syncTask = task;
+                task = () -> plugin.getServer().getScheduler().runTaskAsynchronously(plugin, syncTask);
+            }
+            TimingWheel wheel = scheduled.unit() == ScheduleUnit.TICKS ? tickWheel : clockWheel;
+            wheel.scheduleRepeating(task, toTicks(scheduled.delay(), scheduled.unit()),
+                    toTicks(scheduled.period(), scheduled.unit()));
+        }
+
+        void invoke(Method m, Object owner) {
+            try {
+                m.invoke(owner);
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                plugin.getLogger().log(Level.SEVERE, "Failed to invoke method: " + m.toString(), e);
+            }
+        }
+
+        static long toTicks(long value, ScheduleUnit unit) {
+            if (unit == ScheduleUnit.TICKS || value <= 0) {
+                return value;
+            }
+            long millis = value * unit.getMillis();
+            return (millis + 49) / 50;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.ivan1pl.spigot.utils;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * <p>Hashed timing wheel. Scheduling and cancelling a task takes constant time, and each {@link #tick()} only visits
+ * the tasks stored in a single bucket.</p>
+ *
+ * <p>This class is not thread-safe, all methods should be called from the thread which drives the wheel (the server
+ * thread for wheels obtained from {@link SchedulerUtils#getTimingWheel(org.bukkit.plugin.java.JavaPlugin)}).</p>
+ */
+public class TimingWheel {
+    private final Bucket[] buckets;
+    private final int mask;
+    private final Logger logger;
+    private Bucket processing;
+    private long ticks;
+    private int size;
+
+    /**
+     * Create new timing wheel.
+     * @param wheelSize number of buckets (rounded up to a power of 2)
+     * @param logger logger used to report exceptions thrown by tasks
+     */
+    public TimingWheel(int wheelSize, Logger logger) {
+        int n = Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1;
+        this.buckets = new Bucket[n];
+        for (int i = 0; i < n; ++i) {
+            buckets[i] = new Bucket();
+        }
+        this.mask = n - 1;
+        this.logger = logger;
+    }
+
+    /**
+     * Schedule task executed once.
+     * @param task task
+     * @param delay number of ticks before the task is executed (at least 1)
+     * @return handle which can be used to cancel the task
+     */
+    public Timeout schedule(Runnable task, long delay) {
+        return scheduleRepeating(task, delay, 0);
+    }
+
+    /**
+     * Schedule repeating task.
+     * @param task task
+     * @param delay number of ticks before the first execution (at least 1)
+     * @param period number of ticks between executions, non-positive value means that the task is executed once
+     * @return handle which can be used to cancel the task
+     */
+    public Timeout scheduleRepeating(Runnable task, long delay, long period) {
+        Timeout timeout = new Timeout(this, task, period);
+        add(timeout, delay);
+        return timeout;
+    }
+
+    /**
+     * Advance the wheel by one tick and execute expired tasks.
+     */
+    public void tick() {
+        ++ticks;
+        Bucket bucket = buckets[(int) (ticks & mask)];
+        Timeout timeout = bucket.head;
+        bucket.head = bucket.tail = null;
+        processing = bucket;
+        try {
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                timeout.next = timeout.prev = null;
+                timeout.bucket = null;
+                if (timeout.cancelled) {
+                    --size;
+                } else if (timeout.rounds > 0) {
+                    --timeout.rounds;
+                    bucket.add(timeout);
+                } else {
+                    --size;
+                    run(timeout);
+                }
+                timeout = next;
+            }
+        } finally {
+            processing = null;
+        }
+    }
+
+    /**
+     * Get the number of pending tasks.
+     * @return task count
+     */
+    public int size() {
+        return size;
+    }
+
+    private void run(Timeout timeout) {
+        try {
+            timeout.task.run();
+        } catch (Throwable t) {
+            logger.log(Level.SEVERE, "Scheduled task threw an exception.", t);
+        }
+        if (timeout.period > 0 && !timeout.cancelled) {
+            add(timeout, timeout.period);
+        }
+    }
+
+    private void add(Timeout timeout, long delay) {
+        delay = Math.max(1, delay);
+        timeout.rounds = (delay - 1) / buckets.length;
+        buckets[(int) ((ticks + delay) & mask)].add(timeout);
+        ++size;
+    }
+
+    /**
+     * Handle of a task scheduled in the timing wheel.
+     */
+    public static class Timeout {
+        private final TimingWheel wheel;
+        private final Runnable task;
+        private final long period;
+        private long rounds;
+        private boolean cancelled;
+        private Bucket bucket;
+        private Timeout prev;
+        private Timeout next;
+
+        private Timeout(TimingWheel wheel, Runnable task, long period) {
+            this.wheel = wheel;
+            this.task = task;
+            this.period = period;
+        }
+
+        /**
+         * Cancel the task. Does nothing if the task was already executed (and is not repeating) or cancelled.
+         */
+        public void cancel() {
+            if (cancelled) {
+                return;
+            }
+            cancelled = true;
+            if (bucket != null && bucket != wheel.processing) {
+                bucket.remove(this);
+                --wheel.size;
+            }
+        }
+
+        /**
+         * Check whether the task was cancelled.
+         * @return {@code true} if the task was cancelled
+         */
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    private static class Bucket {
+        Timeout head;
+        Timeout tail;
+
+        void add(Timeout timeout) {
+            timeout.bucket = this;
+            timeout.prev = tail;
+            timeout.next = null;
+            if (tail == null) {
+                head = timeout;
+            } else {
+                tail.next = timeout;
+            }
+            tail = timeout;
+        }
+
+        void remove(Timeout timeout) {
+            if (timeout.prev == null) {
+                head = timeout.next;
+            } else {
+                timeout.prev.next = timeout.next;
+            }
+            if (timeout.next == null) {
+                tail = timeout.prev;
+            } else {
+                timeout.next.prev = timeout.prev;
+            }
+            timeout.prev = timeout.next = null;
+            timeout.bucket = null;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.ivan1pl.spigot.storage;
+
+import org.junit.Test;
+
+import java.io.*;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class PlayerDataCodecTest {
+    @Test
+    public void readsWrittenStrings() throws IOException {
+        char[] chars = new char[40000];
+        Arrays.fill(chars, '\u0105');
+        String longString = new String(chars);
+        for (String value : Arrays.asList(null, "", "title", "\u0000\u0105\u20ac\ud83d\ude00", longString)) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            PlayerDataCodec.writeString(new DataOutputStream(bytes), value);
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+            assertEquals(value, PlayerDataCodec.readString(in));
+            assertEquals(0, in.available());
+        }
+    }
+
+    @Test
+    public void readsStringsWrittenWithBooleanMarker() throws IOException {
+        //format of codecs generated by previous versions
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeBoolean(true);
+        out.writeUTF("title");
+        out.writeBoolean(false);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        assertEquals("title", PlayerDataCodec.readString(in));
+        assertNull(PlayerDataCodec.readString(in));
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsInvalidMarker() throws IOException {
+        PlayerDataCodec.readString(new DataInputStream(new ByteArrayInputStream(new byte[] {3})));
+    }
+}
@@ -0,0 +1,159 @@
+package com.ivan1pl.spigot.storage;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+import static org.junit.Assert.*;
+
+public class RecordLogTest {
+    private static final Logger LOGGER = Logger.getLogger(RecordLogTest.class.getName());
+    private static final UUID FIRST = new UUID(1, 1);
+    private static final UUID SECOND = new UUID(2, 2);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void readsLatestRecordAfterReopen() throws IOException {
+        Path path = folder.getRoot().toPath().resolve("data.dat");
+        try (RecordLog log = new RecordLog(path, LOGGER)) {
+            log.append(records(FIRST, "a", SECOND, "b"));
+            log.append(Collections.singletonMap(FIRST, bytes("c")));
+            assertEquals("c", string(log.read(FIRST)));
+        }
+        try (RecordLog log = new RecordLog(path, LOGGER)) {
+            assertEquals(2, log.size());
+            assertEquals("c", string(log.read(FIRST)));
+            assertEquals("b", string(log.read(SECOND)));
+            assertNull(log.read(new UUID(3, 3)));
+        }
+    }
+
+    @Test
+    public void discardsTornTail() throws IOException {
+        Path path = folder.getRoot().toPath().resolve("data.dat");
+        try (RecordLog log = new RecordLog(path, LOGGER)) {
+            log.append(Collections.singletonMap(FIRST, bytes("first")));
+        }
+        long validSize = Files.size(path);
+        try (RecordLog log = new RecordLog(path, LOGGER)) {
+            log.append(Collections.singletonMap(SECOND, bytes("second")));
+        }
+        //simulate a crash in the middle of writing the second record
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.setLength(file.length() - 3);
+        }
+        try (RecordLog log = new RecordLog(path, LOGGER)) {
+            assertEquals("first", string(log.read(FIRST)));
+            assertNull(log.read(SECOND));
+            assertEquals(validSize, Files.size(path));
+            log.append(Collections.singletonMap(SECOND, bytes("again")));
+        }
+        try (RecordLog log = new RecordLog(path, LOGGER)) {
+            assertEquals("first", string(log.read(FIRST)));
+            assertEquals("again", string(log.read(SECOND)));
+        }
+    }
+
+    @Test
+    public void discardsRecordWithInvalidChecksum() throws IOException {
+        Path path = folder.getRoot().toPath().resolve("data.dat");
+        try (RecordLog log = new RecordLog(path, LOGGER)) {
+            log.append(Collections.singletonMap(FIRST, bytes("first")));
+            log.append(Collections.singletonMap(SECOND, bytes("second")));
+        }
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            //last byte of the payload of the second record
+            long position = file.length() - 5;
+            file.seek(position);
+            int value = file.read();
+            file.seek(position);
+            file.write(value ^ 0xFF);
+        }
+        try (RecordLog log = new RecordLog(path, LOGGER)) {
+            assertEquals("first", string(log.read(FIRST)));
+            assertNull(log.read(SECOND));
+        }
+    }
+
+    @Test
+    public void compactsOutdatedRecords() throws IOException {
+        Path path = folder.getRoot().toPath().resolve("data.dat");
+        byte[] payload = new byte[64 * 1024];
+        try (RecordLog log = new RecordLog(path, LOGGER)) {
+            log.append(Collections.singletonMap(SECOND, bytes("second")));
+            for (int i = 0; !log.needsCompaction(); ++i) {
+                payload[0] = (byte) i;
+                log.append(Collections.singletonMap(FIRST, payload.clone()));
+            }
+            long sizeBefore = Files.size(path);
+            log.compact();
+            assertFalse(log.needsCompaction());
+            assertTrue(Files.size(path) < sizeBefore / 2);
+            assertArrayEquals(payload, log.read(FIRST));
+            assertEquals("second", string(log.read(SECOND)));
+            log.append(Collections.singletonMap(SECOND, bytes("after")));
+        }
+        assertFalse(Files.exists(path.resolveSibling("data.dat.compact")));
+        try (RecordLog log = new RecordLog(path, LOGGER)) {
+            assertEquals(2, log.size());
+            assertArrayEquals(payload, log.read(FIRST));
+            assertEquals("after", string(log.read(SECOND)));
+        }
+    }
+
+    @Test
+    public void removesInterruptedCompaction() throws IOException {
+        Path path = folder.getRoot().toPath().resolve("data.dat");
+        Path compactionPath = path.resolveSibling("data.dat.compact");
+        try (RecordLog log = new RecordLog(path, LOGGER)) {
+            log.append(Collections.singletonMap(FIRST, bytes("first")));
+        }
+        Files.write(compactionPath, bytes("partial"));
+        try (RecordLog log = new RecordLog(path, LOGGER)) {
+            assertEquals("first", string(log.read(FIRST)));
+        }
+        assertFalse(Files.exists(compactionPath));
+    }
+
+    @Test
+    public void rejectsOversizeRecord() throws IOException {
+        Path path = folder.getRoot().toPath().resolve("data.dat");
+        try (RecordLog log = new RecordLog(path, LOGGER)) {
+            try {
+                log.append(Collections.singletonMap(FIRST, new byte[RecordLog.MAX_RECORD_SIZE + 1]));
+                fail("Expected IOException.");
+            } catch (IOException e) {
+                //expected
+            }
+            assertEquals(0, log.size());
+        }
+    }
+
+    private static Map<UUID, byte[]> records(UUID uuid1, String value1, UUID uuid2, String value2) {
+        Map<UUID, byte[]> records = new HashMap<>();
+        records.put(uuid1, bytes(value1));
+        records.put(uuid2, bytes(value2));
+        return records;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String string(byte[] value) {
+        return new String(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,60 @@
+package com.ivan1pl.spigot.utils;
+
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class BKTreeTest {
+    private static final List<String> WORDS = Arrays.asList("--verbose", "--version", "--force", "--format", "--from",
+            "--to", "--time", "--timeout", "-v", "-f", "-t", "--player", "--players", "--world", "--word", "--all");
+
+    @Test
+    public void computesDistance() {
+        assertEquals(0, BKTree.distance("--force", "--force", Integer.MAX_VALUE));
+        assertEquals(1, BKTree.distance("--force", "--forc", Integer.MAX_VALUE));
+        assertEquals(3, BKTree.distance("kitten", "sitting", Integer.MAX_VALUE));
+        assertEquals(6, BKTree.distance("", "--from", Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void stopsAboveLimit() {
+        assertTrue(BKTree.distance("--verbose", "-t", 2) > 2);
+        assertTrue(BKTree.distance("kitten", "sitting", 2) > 2);
+        assertEquals(3, BKTree.distance("kitten", "sitting", 3));
+    }
+
+    @Test
+    public void searchMatchesBruteForce() {
+        BKTree tree = new BKTree();
+        WORDS.forEach(tree::add);
+        assertEquals(WORDS.size(), tree.size());
+        for (String query : Arrays.asList("--verbos", "--form", "--tme", "-x", "--playr", "--wrld", "", "--all")) {
+            for (int maxDistance = 0; maxDistance <= 3; ++maxDistance) {
+                assertEquals(query + " within " + maxDistance, bruteForce(query, maxDistance),
+                        tree.search(query, maxDistance));
+            }
+        }
+    }
+
+    @Test
+    public void completesPrefix() {
+        BKTree tree = new BKTree();
+        WORDS.forEach(tree::add);
+        assertEquals(Arrays.asList("--player", "--players"), tree.complete("--pl"));
+        assertTrue(tree.complete("--x").isEmpty());
+    }
+
+    private static List<String> bruteForce(String query, int maxDistance) {
+        List<String> result = new ArrayList<>();
+        for (String word : WORDS) {
+            if (BKTree.distance(word, query, Integer.MAX_VALUE) <= maxDistance) {
+                result.add(word);
+            }
+        }
+        result.sort(Comparator.comparingInt((String w) -> BKTree.distance(w, query, Integer.MAX_VALUE))
+                .thenComparing(w -> w));
+        return result;
+    }
+}
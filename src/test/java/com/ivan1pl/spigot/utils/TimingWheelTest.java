@@ -0,0 +1,136 @@
+package com.ivan1pl.spigot.utils;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+import static org.junit.Assert.*;
+
+public class TimingWheelTest {
+    private TimingWheel wheel;
+    private List<Long> executions;
+    private long tick;
+
+    @Before
+    public void setUp() {
+        wheel = new TimingWheel(8, Logger.getLogger(TimingWheelTest.class.getName()));
+        executions = new ArrayList<>();
+        tick = 0;
+    }
+
+    @Test
+    public void runsTaskAfterDelay() {
+        wheel.schedule(this::record, 3);
+        advance(2);
+        assertTrue(executions.isEmpty());
+        advance(1);
+        assertEquals(listOf(3), executions);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void runsTaskWithDelayLongerThanRevolution() {
+        wheel.schedule(this::record, 21);
+        advance(20);
+        assertTrue(executions.isEmpty());
+        advance(1);
+        assertEquals(listOf(21), executions);
+    }
+
+    @Test
+    public void treatsNonPositiveDelayAsOneTick() {
+        wheel.schedule(this::record, 0);
+        advance(1);
+        assertEquals(listOf(1), executions);
+    }
+
+    @Test
+    public void repeatsTask() {
+        wheel.scheduleRepeating(this::record, 2, 5);
+        advance(12);
+        assertEquals(listOf(2, 7, 12), executions);
+        assertEquals(1, wheel.size());
+    }
+
+    @Test
+    public void repeatsTaskWithPeriodEqualToWheelSize() {
+        wheel.scheduleRepeating(this::record, 8, 8);
+        advance(24);
+        assertEquals(listOf(8, 16, 24), executions);
+    }
+
+    @Test
+    public void cancelledTaskIsNotRun() {
+        TimingWheel.Timeout timeout = wheel.schedule(this::record, 3);
+        timeout.cancel();
+        assertTrue(timeout.isCancelled());
+        assertEquals(0, wheel.size());
+        advance(10);
+        assertTrue(executions.isEmpty());
+    }
+
+    @Test
+    public void repeatingTaskCanCancelItself() {
+        TimingWheel.Timeout[] timeout = new TimingWheel.Timeout[1];
+        timeout[0] = wheel.scheduleRepeating(() -> {
+            record();
+            if (executions.size() == 2) {
+                timeout[0].cancel();
+            }
+        }, 1, 1);
+        advance(5);
+        assertEquals(listOf(1, 2), executions);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void taskCanCancelTaskInSameBucket() {
+        TimingWheel.Timeout[] other = new TimingWheel.Timeout[1];
+        wheel.schedule(() -> other[0].cancel(), 2);
+        other[0] = wheel.schedule(this::record, 2);
+        advance(3);
+        assertTrue(executions.isEmpty());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void exceptionDoesNotStopOtherTasks() {
+        wheel.schedule(() -> {
+            throw new IllegalStateException("test");
+        }, 1);
+        wheel.schedule(this::record, 1);
+        advance(1);
+        assertEquals(listOf(1), executions);
+    }
+
+    @Test
+    public void taskScheduledFromTaskRunsLater() {
+        wheel.schedule(() -> wheel.schedule(this::record, 8), 1);
+        advance(8);
+        assertTrue(executions.isEmpty());
+        advance(1);
+        assertEquals(listOf(9), executions);
+    }
+
+    private void record() {
+        executions.add(tick);
+    }
+
+    private void advance(int ticks) {
+        for (int i = 0; i < ticks; ++i) {
+            ++tick;
+            wheel.tick();
+        }
+    }
+
+    private static List<Long> listOf(long... values) {
+        List<Long> list = new ArrayList<>();
+        for (long value : values) {
+            list.add(value);
+        }
+        return list;
+    }
+}